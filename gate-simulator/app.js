@@ -2,26 +2,44 @@ const fs = require('fs');
 const express = require('express');
 const uuidv4 = require('uuid/v4');
 
-const data = JSON.parse(fs.readFileSync('data.json', 'UTF-8'));
-console.log(data);
+const cards = require('./cards');
+
+// CARDS_FILE - таблица карт из generate.js, иначе карты из data.json
+const lookup = process.env.CARDS_FILE ? cards.load(process.env.CARDS_FILE) : loadJson('data.json');
+
+function loadJson(file) {
+  const data = JSON.parse(fs.readFileSync(file, 'UTF-8'));
+  console.log(data);
+  const statuses = new Map(data.map(o => [o.number, o.status]));
+  return number => statuses.get(number);
+}
+
+// RECORD_FILE - журнал запросов для воспроизведения (TrafficReplay), строка на запрос:
+// время (мс), путь, номер карты, статус или код ошибки, время обработки (мкс)
+const recorder = process.env.RECORD_FILE ? fs.createWriteStream(process.env.RECORD_FILE, {flags: 'a'}) : undefined;
 
 const server = express();
 server.use(express.json());
 
 server.post(['/payment', '/credit'], (req, res) => {
+  const started = process.hrtime.bigint();
   console.log(`Incoming request: ${req.path} ${JSON.stringify(req.body)}`);
   const {body: {number}} = req;
 
-  const [item] = data.filter(o => o.number === number);
-  if (item === undefined) {
+  const status = typeof number === 'string' ? lookup(number) : undefined;
+  if (status === undefined) {
     res.status(400).end();
-    return;
+  } else {
+    res.send({
+      id: uuidv4(),
+      status,
+    });
   }
 
-  res.send({
-    id: uuidv4(),
-    status: item.status,
-  });
+  if (recorder) {
+    const micros = (process.hrtime.bigint() - started) / 1000n;
+    recorder.write(`${Date.now()}\t${req.path}\t${number}\t${status || 400}\t${micros}\n`);
+  }
 });
 
 // get port from environment variable or just use 9999
@@ -0,0 +1,42 @@
+const fs = require('fs');
+
+// cards.bin: "CARD", BIN (uint32), first account number (uint32), card count (uint32), reserved (uint32),
+// then one status byte per card. PAN = BIN (6 digits) + account (9 digits) + Luhn check digit.
+const HEADER_SIZE = 20;
+const MAGIC = 'CARD';
+const STATUSES = [undefined, 'APPROVED', 'DECLINED'];
+
+function luhnDigit(body) {
+  let sum = 0;
+  for (let i = body.length - 1, double = true; i >= 0; i--, double = !double) {
+    let d = body.charCodeAt(i) - 48;
+    if (double) {
+      d *= 2;
+      if (d > 9) d -= 9;
+    }
+    sum += d;
+  }
+  return (10 - (sum % 10)) % 10;
+}
+
+function load(file) {
+  const table = fs.readFileSync(file);
+  if (table.toString('latin1', 0, 4) !== MAGIC) {
+    throw new Error(`${file} is not a card table`);
+  }
+  const bin = table.readUInt32BE(4);
+  const first = table.readUInt32BE(8);
+  const count = table.readUInt32BE(12);
+  console.log(`Loaded ${count} cards ${bin}${String(first).padStart(9, '0')}* from ${file}`);
+
+  return (number) => {
+    const digits = number.replace(/ /g, '');
+    if (digits.length !== 16 || Number(digits.slice(0, 6)) !== bin) return undefined;
+    const index = Number(digits.slice(6, 15)) - first;
+    if (!(index >= 0 && index < count)) return undefined;
+    if (luhnDigit(digits.slice(0, 15)) !== digits.charCodeAt(15) - 48) return undefined;
+    return STATUSES[table[HEADER_SIZE + index]];
+  };
+}
+
+module.exports = {HEADER_SIZE, MAGIC, luhnDigit, load};
@@ -0,0 +1,40 @@
+const fs = require('fs');
+const {HEADER_SIZE, MAGIC} = require('./cards');
+
+// node generate.js [count] [declined share] [bin] [first account] [file]
+const [count = 1000000, declined = 0.2, bin = 400000, first = 0, file = 'cards.bin'] = process.argv.slice(2);
+const total = Number(count);
+const share = Number(declined);
+
+// Номер карты: BIN из 6 цифр + номер счёта из 9 цифр + контрольная цифра, иначе получится не 16-значный номер
+const fail = message => {
+  console.error(message);
+  process.exit(1);
+};
+if (!Number.isInteger(total) || total <= 0 || total > 0xFFFFFFFF) fail(`Card count must be a positive integer: ${count}`);
+if (!(share >= 0 && share <= 1)) fail(`Declined share must be between 0 and 1: ${declined}`);
+if (!Number.isInteger(Number(bin)) || Number(bin) < 0 || Number(bin) > 999999) fail(`BIN must have at most 6 digits: ${bin}`);
+if (!Number.isInteger(Number(first)) || Number(first) < 0) fail(`First account must be a non-negative integer: ${first}`);
+if (Number(first) + total - 1 > 999999999) {
+  fail(`Accounts ${first}..${Number(first) + total - 1} do not fit into 9 digits, max count is ${1000000000 - Number(first)}`);
+}
+
+// mulberry32: повторяемый набор статусов при одинаковых параметрах
+let seed = 42;
+const random = () => {
+  seed = (seed + 0x6D2B79F5) | 0;
+  let t = Math.imul(seed ^ (seed >>> 15), 1 | seed);
+  t = (t + Math.imul(t ^ (t >>> 7), 61 | t)) ^ t;
+  return ((t ^ (t >>> 14)) >>> 0) / 4294967296;
+};
+
+const table = Buffer.alloc(HEADER_SIZE + total);
+table.write(MAGIC, 0, 'latin1');
+table.writeUInt32BE(Number(bin), 4);
+table.writeUInt32BE(Number(first), 8);
+table.writeUInt32BE(total, 12);
+for (let i = 0; i < total; i++) {
+  table[HEADER_SIZE + i] = random() < share ? 2 : 1;
+}
+fs.writeFileSync(file, table);
+console.log(`Generated ${total} cards into ${file}`);
@@ -0,0 +1,56 @@
+package data;
+
+import com.google.gson.Gson;
+import lombok.Value;
+import support.RunMetrics;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+public class ApiHelper {
+    private static final URI baseUri = URI.create(System.getProperty("app.url", "http://localhost:8080/"));
+    private static final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private static final Gson gson = new Gson();
+
+    @Value
+    private static class PaymentRequest {
+        String number;
+        String year;
+        String month;
+        String holder;
+        String cvc;
+    }
+
+    public static CompletableFuture<HttpResponse<String>> pay(DataHelper.CardInfo cardInfo) {
+        return send("api/v1/pay", cardInfo);
+    }
+
+    public static CompletableFuture<HttpResponse<String>> credit(DataHelper.CardInfo cardInfo) {
+        return send("api/v1/credit", cardInfo);
+    }
+
+    public static String formatCardNumber(String cardNumber) {
+        return cardNumber.replaceAll("(\\d{4})(?=\\d)", "$1 ");
+    }
+
+    private static CompletableFuture<HttpResponse<String>> send(String path, DataHelper.CardInfo cardInfo) {
+        var body = new PaymentRequest(formatCardNumber(cardInfo.getCardNumber()), cardInfo.getYear(),
+                cardInfo.getMonth(), cardInfo.getCardHolder(), cardInfo.getCvc());
+        var request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(body)))
+                .build();
+        var start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> RunMetrics.record("api", path, null, start,
+                        error == null ? String.valueOf(response.statusCode()) : error.getClass().getSimpleName()));
+    }
+}
@@ -0,0 +1,107 @@
+package data;
+
+import lombok.SneakyThrows;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Таблица карт симулятора банка (gate-simulator/generate.js), отображённая в память.
+// Номер карты: BIN (6 цифр) + номер счёта (9 цифр) + контрольная цифра Луна, статус - байт по индексу счёта.
+// Карты выдаются из одного курсора на таблицу, поэтому не повторяются ни между потоками, ни между сценариями.
+public class CardRange {
+    private static final int headerSize = 20;
+    private static final String magic = "CARD";
+    private static final Map<Path, CardRange> opened = new ConcurrentHashMap<>();
+
+    private final MappedByteBuffer table;
+    private final int bin;
+    private final long first;
+    private final long count;
+    private final AtomicLong next = new AtomicLong();
+
+    private CardRange(MappedByteBuffer table) {
+        var header = new byte[magic.length()];
+        table.duplicate().get(header);
+        if (!magic.equals(new String(header, StandardCharsets.ISO_8859_1))) {
+            throw new IllegalArgumentException("Not a card table");
+        }
+        this.table = table;
+        this.bin = table.getInt(4);
+        this.first = Integer.toUnsignedLong(table.getInt(8));
+        this.count = Integer.toUnsignedLong(table.getInt(12));
+    }
+
+    public static CardRange getDefault() {
+        return open(Path.of(System.getProperty("cards.file", "gate-simulator/cards.bin")));
+    }
+
+    public static CardRange open(Path file) {
+        return opened.computeIfAbsent(file.toAbsolutePath(), CardRange::map);
+    }
+
+    @SneakyThrows
+    private static CardRange map(Path file) {
+        try (var channel = FileChannel.open(file)) {
+            return new CardRange(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public String getCardNumber(long index) {
+        var body = String.format("%06d%09d", bin, first + index);
+        return body + luhnDigit(body);
+    }
+
+    public String getStatus(String cardNumber) {
+        var digits = cardNumber.replace(" ", "");
+        if (digits.length() != 16 || Integer.parseInt(digits.substring(0, 6)) != bin
+                || luhnDigit(digits.substring(0, 15)) != digits.charAt(15) - '0') {
+            return null;
+        }
+        var index = Long.parseLong(digits.substring(6, 15)) - first;
+        if (index < 0 || index >= count) {
+            return null;
+        }
+        switch (table.get(headerSize + (int) index)) {
+            case 1:
+                return "APPROVED";
+            case 2:
+                return "DECLINED";
+            default:
+                return null;
+        }
+    }
+
+    public String nextCardNumber() {
+        var index = next.getAndIncrement();
+        if (index >= count) {
+            throw new IllegalStateException("Card table is exhausted after " + count + " cards");
+        }
+        return getCardNumber(index);
+    }
+
+    public static int luhnDigit(String body) {
+        var sum = 0;
+        var doubled = true;
+        for (int i = body.length() - 1; i >= 0; i--) {
+            var digit = body.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -43,6 +43,46 @@ public class DataHelper {
         return new CardInfo("4444444444444442", month, year, holder, cvv);
     }
 
+    public static CardInfo getRangeCard() {
+        Faker faker = new Faker();
+        String holder = faker.name().firstName() + " " + faker.name().lastName();
+        String month = getShiftedMonth(1);
+        String year = getShiftedYear(1);
+        String cvv = faker.number().digits(3);
+        String number = CardRange.getDefault().nextCardNumber();
+        return new CardInfo(number, month, year, holder, cvv);
+    }
+
+    // Карта для нагрузочных сценариев: при -Dcards.source=range - уникальная карта из таблицы симулятора,
+    // иначе поочерёдно APPROVED и DECLINED из data.json.
+    public static CardInfo getLoadCard(int n) {
+        if ("range".equals(System.getProperty("cards.source", "fixed"))) {
+            return getRangeCard();
+        }
+        return n % 2 == 0 ? getApprovedCard() : getDeclinedCard();
+    }
+
+    // Статус, который должен вернуть симулятор банка: для двух карт из data.json он известен, остальные ищутся в таблице.
+    public static String getExpectedStatus(CardInfo cardInfo) {
+        switch (cardInfo.getCardNumber()) {
+            case "4444444444444441":
+                return "APPROVED";
+            case "4444444444444442":
+                return "DECLINED";
+            default:
+                return CardRange.getDefault().getStatus(cardInfo.getCardNumber());
+        }
+    }
+
+    public static CardInfo getCardWithNumber(String number) {
+        Faker faker = new Faker();
+        String holder = faker.name().firstName() + " " + faker.name().lastName();
+        String month = getShiftedMonth(1);
+        String year = getShiftedYear(1);
+        String cvv = faker.number().digits(3);
+        return new CardInfo(number.replace(" ", ""), month, year, holder, cvv);
+    }
+
     public static CardInfo getEmptyCard() {
         return new CardInfo("", "", "", "", "");
     }
@@ -3,8 +3,13 @@ package data;
 import lombok.SneakyThrows;
 import org.apache.commons.dbutils.QueryRunner;
 import org.apache.commons.dbutils.handlers.ScalarHandler;
+import support.SqlQueryEvent;
+import support.Timeouts;
 
+import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
 
 
 public class SQLHelper {
@@ -18,12 +23,15 @@ public class SQLHelper {
         var cleanOrder = "DELETE FROM order_entity;";
         var cleanPayment = "DELETE FROM payment_entity;";
         var runner = new QueryRunner();
-        var conn = DriverManager.getConnection(url, user, password);
-        {
-            runner.update(conn, cleanCreditRequest);
-            runner.update(conn, cleanOrder);
-            runner.update(conn, cleanPayment);
-
+        try (var conn = DriverManager.getConnection(url, user, password)) {
+            var event = SqlQueryEvent.begin("clearDB");
+            try {
+                runner.update(conn, cleanCreditRequest);
+                runner.update(conn, cleanOrder);
+                runner.update(conn, cleanPayment);
+            } finally {
+                event.finish();
+            }
         }
     }
 
@@ -39,22 +47,115 @@ public class SQLHelper {
         return getData(codesSQL);
     }
 
+    public static String waitForPaymentStatus() {
+        return Timeouts.measure(Timeouts.Wait.DB_ROW, timeout ->
+                awaitData("SELECT status FROM payment_entity ORDER BY created DESC LIMIT 1;", timeout));
+    }
+
+    public static String waitForCreditRequestStatus() {
+        return Timeouts.measure(Timeouts.Wait.DB_ROW, timeout ->
+                awaitData("SELECT status FROM credit_request_entity ORDER BY created DESC LIMIT 1;", timeout));
+    }
+
     @SneakyThrows
     public static String getOrderCount() {
         var codesSQL = "SELECT COUNT(*) FROM order_entity;";
         var runner = new QueryRunner();
-        var conn = DriverManager.getConnection(url, user, password);
-        var count = runner.query(conn, codesSQL, new ScalarHandler<>());
-        return String.valueOf(count);
+        try (var conn = DriverManager.getConnection(url, user, password)) {
+            var event = SqlQueryEvent.begin(codesSQL);
+            try {
+                return String.valueOf(runner.query(conn, codesSQL, new ScalarHandler<>()));
+            } finally {
+                event.finish();
+            }
+        }
     }
 
+    @SneakyThrows
+    public static long getPaymentCount() {
+        return getCount("SELECT COUNT(*) FROM payment_entity;");
+    }
 
     @SneakyThrows
-    private static String getData(String query) {
+    public static long getCreditRequestCount() {
+        return getCount("SELECT COUNT(*) FROM credit_request_entity;");
+    }
+
+    @SneakyThrows
+    public static long getApprovedCount() {
+        return getCount("SELECT (SELECT COUNT(*) FROM payment_entity WHERE status = 'APPROVED') + " +
+                "(SELECT COUNT(*) FROM credit_request_entity WHERE status = 'APPROVED');");
+    }
+
+    @SneakyThrows
+    public static long getOrphanedOrderCount() {
+        var codesSQL = "SELECT COUNT(*) FROM order_entity o " +
+                "WHERE NOT EXISTS (SELECT 1 FROM payment_entity p WHERE p.transaction_id = o.payment_id) " +
+                "AND NOT EXISTS (SELECT 1 FROM credit_request_entity c WHERE c.bank_id = o.payment_id);";
+        return getCount(codesSQL);
+    }
+
+    @SneakyThrows
+    public static long getLostStatusCount() {
+        var codesSQL = "SELECT " +
+                "(SELECT COUNT(*) FROM payment_entity p " +
+                "WHERE NOT EXISTS (SELECT 1 FROM order_entity o WHERE o.payment_id = p.transaction_id)) + " +
+                "(SELECT COUNT(*) FROM credit_request_entity c " +
+                "WHERE NOT EXISTS (SELECT 1 FROM order_entity o WHERE o.payment_id = c.bank_id));";
+        return getCount(codesSQL);
+    }
+
+    // Открытые сессии БД без учёта соединения, через которое выполняется сам запрос.
+    @SneakyThrows
+    public static long getSessionCount() {
+        var codesSQL = url.startsWith("jdbc:postgresql")
+                ? "SELECT COUNT(*) FROM pg_stat_activity WHERE datname = current_database();"
+                : "SELECT COUNT(*) FROM information_schema.processlist WHERE db = DATABASE();";
+        return getCount(codesSQL) - 1;
+    }
+
+    @SneakyThrows
+    private static long getCount(String query) {
         var runner = new QueryRunner();
-        var conn = DriverManager.getConnection(url, user, password);
-        return runner.query(conn, query, new ScalarHandler<>());
+        try (var conn = DriverManager.getConnection(url, user, password)) {
+            var event = SqlQueryEvent.begin(query);
+            try {
+                Number count = runner.query(conn, query, new ScalarHandler<>());
+                return count.longValue();
+            } finally {
+                event.finish();
+            }
+        }
+    }
 
+    // Опрос идёт через одно соединение на всё ожидание, а не по соединению на каждую попытку.
+    @SneakyThrows
+    private static String awaitData(String query, Duration timeout) {
+        var deadline = System.nanoTime() + timeout.toNanos();
+        var runner = new QueryRunner();
+        try (var conn = DriverManager.getConnection(url, user, password)) {
+            var data = queryData(runner, conn, query);
+            while (data == null && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+                data = queryData(runner, conn, query);
+            }
+            return data;
+        }
     }
-}
 
+    @SneakyThrows
+    private static String getData(String query) {
+        try (var conn = DriverManager.getConnection(url, user, password)) {
+            return queryData(new QueryRunner(), conn, query);
+        }
+    }
+
+    private static String queryData(QueryRunner runner, Connection conn, String query) throws SQLException {
+        var event = SqlQueryEvent.begin(query);
+        try {
+            return runner.query(conn, query, new ScalarHandler<>());
+        } finally {
+            event.finish();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package load;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// TCP-прокси между приложением и БД: задержка на каждую пачку данных (запрос или ответ) в обе стороны,
+// ограничение полосы, сброс соединений и пауза. Управляется из тестов напрямую или по HTTP (DbProxyClient).
+public class DbProxy implements AutoCloseable {
+    private static final int bufferSize = 16 * 1024;
+
+    private final ServerSocket server;
+    private final String targetHost;
+    private final int targetPort;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Object pauseLock = new Object();
+    private volatile long latencyMillis;
+    private volatile long bandwidth;
+    private volatile boolean paused;
+
+    public DbProxy(int listenPort, String targetHost, int targetPort) throws IOException {
+        this.server = new ServerSocket(listenPort);
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        daemon("db-proxy-accept", this::acceptLoop).start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: DbProxy <listen port> <target host:port> <control port>");
+            System.exit(2);
+        }
+        var target = args[1].split(":");
+        var proxy = new DbProxy(Integer.parseInt(args[0]), target[0], Integer.parseInt(target[1]));
+        proxy.serveControl(Integer.parseInt(args[2]));
+        System.out.println("DbProxy :" + args[0] + " -> " + args[1] + ", control on :" + args[2]);
+    }
+
+    public void setLatency(Duration latency) {
+        latencyMillis = latency.toMillis();
+    }
+
+    // Байт в секунду, 0 - без ограничения.
+    public void setBandwidth(long bytesPerSecond) {
+        bandwidth = bytesPerSecond;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    // Закрытие с SO_LINGER 0 отправляет RST, как при обрыве связи с БД.
+    public void resetConnections() {
+        for (var socket : sockets) {
+            try {
+                socket.setSoLinger(true, 0);
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+        sockets.clear();
+    }
+
+    public void clear() {
+        setLatency(Duration.ZERO);
+        setBandwidth(0);
+        resume();
+    }
+
+    public String stats() {
+        return String.format("latency=%d;bandwidth=%d;paused=%b;connections=%d;open=%d;bytes=%d",
+                latencyMillis, bandwidth, paused, connections.get(), sockets.size() / 2, bytes.get());
+    }
+
+    public HttpServer serveControl(int port) throws IOException {
+        var http = HttpServer.create(new InetSocketAddress(port), 0);
+        http.createContext("/", exchange -> {
+            var query = parseQuery(exchange.getRequestURI().getRawQuery());
+            var status = 200;
+            try {
+                switch (exchange.getRequestURI().getPath()) {
+                    case "/latency":
+                        setLatency(Duration.ofMillis(Long.parseLong(query.get("ms"))));
+                        break;
+                    case "/bandwidth":
+                        setBandwidth(Long.parseLong(query.get("bps")));
+                        break;
+                    case "/reset":
+                        resetConnections();
+                        break;
+                    case "/pause":
+                        pause();
+                        break;
+                    case "/resume":
+                        resume();
+                        break;
+                    case "/clear":
+                        clear();
+                        break;
+                    case "/stats":
+                        break;
+                    default:
+                        status = 404;
+                }
+            } catch (NumberFormatException e) {
+                status = 400;
+            }
+            var body = stats().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        http.start();
+        return http;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        resume();
+        resetConnections();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            Socket client = null;
+            try {
+                client = server.accept();
+                awaitResume();
+                var upstream = new Socket(targetHost, targetPort);
+                client.setTcpNoDelay(true);
+                upstream.setTcpNoDelay(true);
+                sockets.add(client);
+                sockets.add(upstream);
+                connections.incrementAndGet();
+                pump(client, upstream);
+                pump(upstream, client);
+            } catch (IOException e) {
+                if (client != null) {
+                    closeQuietly(client);
+                }
+                if (!server.isClosed()) {
+                    System.err.println("DbProxy: " + e);
+                }
+            }
+        }
+    }
+
+    private void pump(Socket from, Socket to) {
+        daemon("db-proxy-pump", () -> {
+            var buffer = new byte[bufferSize];
+            try {
+                var in = from.getInputStream();
+                var out = to.getOutputStream();
+                while (true) {
+                    // Задержка добавляется один раз на пачку: если данные уже ждут в сокете, это продолжение
+                    // того же запроса или ответа, и большой ответ не замедляется на каждые 16 КБ.
+                    var idle = in.available() == 0;
+                    var read = in.read(buffer);
+                    if (read == -1) {
+                        break;
+                    }
+                    awaitResume();
+                    if (idle) {
+                        sleep(latencyMillis);
+                    }
+                    out.write(buffer, 0, read);
+                    out.flush();
+                    bytes.addAndGet(read);
+                    var limit = bandwidth;
+                    if (limit > 0) {
+                        sleep(read * 1000L / limit);
+                    }
+                }
+            } catch (IOException ignored) {
+            } finally {
+                sockets.remove(from);
+                sockets.remove(to);
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }).start();
+    }
+
+    private void awaitResume() {
+        synchronized (pauseLock) {
+            while (paused) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static Thread daemon(String name, Runnable task) {
+        var thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        var params = new HashMap<String, String>();
+        if (query != null) {
+            for (var pair : query.split("&")) {
+                var parts = pair.split("=", 2);
+                params.put(parts[0], parts.length > 1 ? parts[1] : "");
+            }
+        }
+        return params;
+    }
+}
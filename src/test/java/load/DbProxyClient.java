@@ -0,0 +1,57 @@
+package load;
+
+import lombok.SneakyThrows;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// Управление DbProxy, запущенным отдельным процессом (./gradlew dbProxy).
+public class DbProxyClient {
+    private final URI control;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    public DbProxyClient(URI control) {
+        this.control = control;
+    }
+
+    public void setLatency(Duration latency) {
+        call("latency?ms=" + latency.toMillis());
+    }
+
+    public void setBandwidth(long bytesPerSecond) {
+        call("bandwidth?bps=" + bytesPerSecond);
+    }
+
+    public void resetConnections() {
+        call("reset");
+    }
+
+    public void pause() {
+        call("pause");
+    }
+
+    public void resume() {
+        call("resume");
+    }
+
+    public void clear() {
+        call("clear");
+    }
+
+    public String stats() {
+        return call("stats");
+    }
+
+    @SneakyThrows
+    private String call(String command) {
+        var request = HttpRequest.newBuilder(control.resolve(command)).timeout(Duration.ofSeconds(5)).GET().build();
+        var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("DbProxy " + command + " failed: HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,254 @@
+package load;
+
+import data.DataHelper;
+import data.SQLHelper;
+import lombok.SneakyThrows;
+import lombok.Value;
+
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+// Длительный прогон с постоянной частотой заявок: раз в окно снимаются сессии БД, размеры таблиц,
+// heap самого тестового JVM и задержки, после чего по рядам ищется устойчивый рост.
+public class Soak {
+    // Порог одностороннего теста Манна — Кендалла для уровня значимости 0.05.
+    private static final double significantZ = 1.645;
+
+    @Value
+    public static class Sample {
+        long seconds;
+        int sent;
+        int accepted;
+        int failed;
+        long p50;
+        long p99;
+        long sessions;
+        long orders;
+        long payments;
+        long credits;
+        long heapMb;
+
+        // Принятые приложением заявки, для которых в БД так и не появился заказ.
+        public long getUnpersisted() {
+            return accepted - orders;
+        }
+
+        String toCsv() {
+            return String.join(";", String.valueOf(seconds), String.valueOf(sent), String.valueOf(accepted),
+                    String.valueOf(failed), String.valueOf(p50), String.valueOf(p99), String.valueOf(sessions),
+                    String.valueOf(orders), String.valueOf(payments), String.valueOf(credits),
+                    String.valueOf(getUnpersisted()), String.valueOf(heapMb));
+        }
+    }
+
+    @Value
+    public static class Trend {
+        String metric;
+        double slopePerHour;
+        double z;
+        double growth;
+        boolean growing;
+
+        @Override
+        public String toString() {
+            return String.format("%s: %+.2f/h over the run %+.2f, Mann-Kendall z=%.2f%s",
+                    metric, slopePerHour, growth, z, growing ? " GROWING" : "");
+        }
+    }
+
+    @Value
+    public static class Report {
+        List<Sample> samples;
+        List<Trend> trends;
+        long expected;
+        int sent;
+        int harnessErrors;
+        String firstHarnessError;
+
+        public List<Trend> getGrowing() {
+            return trends.stream().filter(Trend::isGrowing).collect(Collectors.toList());
+        }
+
+        // Без этой проверки отставший или упавший генератор выглядит как прогон без утечек.
+        public boolean isRateAchieved() {
+            return harnessErrors == 0 && sent >= expected * 0.95;
+        }
+
+        public String summary() {
+            var last = samples.isEmpty() ? null : samples.get(samples.size() - 1);
+            return (last == null ? "no samples" : String.format("%d s, sent %d, accepted %d, failed %d",
+                    last.getSeconds(), last.getSent(), last.getAccepted(), last.getFailed()))
+                    + String.format(", offered %d of %d expected", sent, expected)
+                    + (harnessErrors == 0 ? "" : ", harness errors " + harnessErrors + " (first: " + firstHarnessError + ")")
+                    + trends.stream().map(Trend::toString).collect(Collectors.joining("\n  ", "\n  ", ""));
+        }
+    }
+
+    @SneakyThrows
+    public static Report run(List<SubmissionStress.Flow> flows, int perSecond, Duration duration, Duration window, Path csv) {
+        var samples = new ArrayList<Sample>();
+        var latencies = new AtomicReference<List<Long>>(Collections.synchronizedList(new ArrayList<>()));
+        var sent = new AtomicInteger();
+        var accepted = new AtomicInteger();
+        var failed = new AtomicInteger();
+        var harnessErrors = new AtomicInteger();
+        var firstHarnessError = new AtomicReference<String>();
+        long elapsed;
+        var scheduler = Executors.newSingleThreadScheduledExecutor();
+        Files.createDirectories(csv.toAbsolutePath().getParent());
+        try (var out = new PrintWriter(Files.newBufferedWriter(csv))) {
+            out.println("seconds;sent;accepted;failed;p50;p99;sessions;orders;payments;credits;unpersisted;heapMb");
+            var start = System.nanoTime();
+            // Исключение, вылетевшее из задачи, молча отменяет всё расписание, поэтому оно перехватывается и считается.
+            scheduler.scheduleAtFixedRate(() -> {
+                try {
+                    var n = sent.getAndIncrement();
+                    var cardInfo = DataHelper.getLoadCard(n);
+                    var begin = System.nanoTime();
+                    flows.get(n % flows.size()).submit(cardInfo).whenComplete((response, error) -> {
+                        latencies.get().add((System.nanoTime() - begin) / 1_000_000);
+                        if (error == null && response.statusCode() == 200) {
+                            accepted.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    });
+                } catch (Throwable e) {
+                    harnessErrors.incrementAndGet();
+                    firstHarnessError.compareAndSet(null, e.toString());
+                }
+            }, 0, 1_000_000_000L / perSecond, TimeUnit.NANOSECONDS);
+
+            for (long next = start + window.toNanos(); next <= start + duration.toNanos(); next += window.toNanos()) {
+                TimeUnit.NANOSECONDS.sleep(next - System.nanoTime());
+                List<Long> sorted = new ArrayList<>(latencies.getAndSet(Collections.synchronizedList(new ArrayList<>())));
+                Collections.sort(sorted);
+                var sample = new Sample((System.nanoTime() - start) / 1_000_000_000L, sent.get(), accepted.get(),
+                        failed.get(), SubmissionStress.percentile(sorted, 0.5), SubmissionStress.percentile(sorted, 0.99),
+                        SQLHelper.getSessionCount(), Long.parseLong(SQLHelper.getOrderCount()),
+                        SQLHelper.getPaymentCount(), SQLHelper.getCreditRequestCount(), heapAfterGcMb());
+                samples.add(sample);
+                out.println(sample.toCsv());
+                out.flush();
+            }
+            elapsed = System.nanoTime() - start;
+        } finally {
+            scheduler.shutdownNow();
+        }
+        // Первая заявка уходит сразу, следующие — через равные интервалы.
+        var expected = 1 + elapsed * perSecond / 1_000_000_000L;
+        return new Report(samples, trends(samples), expected, sent.get(), harnessErrors.get(), firstHarnessError.get());
+    }
+
+    // Минимальный прирост за весь прогон, начиная с которого значимый тренд считается утечкой.
+    static List<Trend> trends(List<Sample> samples) {
+        var p99 = median(samples, Sample::getP99);
+        var heap = median(samples, Sample::getHeapMb);
+        return List.of(
+                trend("sessions", samples, Sample::getSessions, 2),
+                trend("unpersisted", samples, Sample::getUnpersisted, 1),
+                trend("heapMb", samples, Sample::getHeapMb, Math.max(16, heap * 0.2)),
+                trend("p99", samples, Sample::getP99, Math.max(20, p99 * 0.2)),
+                trend("p50", samples, Sample::getP50, Math.max(10, median(samples, Sample::getP50) * 0.2)));
+    }
+
+    static Trend trend(String metric, List<Sample> samples, ToDoubleFunction<Sample> value, double minGrowth) {
+        var n = samples.size();
+        var x = new double[n];
+        var y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = samples.get(i).getSeconds() / 3600.0;
+            y[i] = value.applyAsDouble(samples.get(i));
+        }
+        var slope = slope(x, y);
+        var growth = n < 2 ? 0 : slope * (x[n - 1] - x[0]);
+        var z = mannKendallZ(y);
+        return new Trend(metric, slope, z, growth, z > significantZ && growth > minGrowth);
+    }
+
+    // Наклон прямой, построенной методом наименьших квадратов.
+    static double slope(double[] x, double[] y) {
+        var n = x.length;
+        if (n < 2) {
+            return 0;
+        }
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += x[i] / n;
+            meanY += y[i] / n;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < n; i++) {
+            covariance += (x[i] - meanX) * (y[i] - meanY);
+            variance += (x[i] - meanX) * (x[i] - meanX);
+        }
+        return variance == 0 ? 0 : covariance / variance;
+    }
+
+    // Статистика Манна — Кендалла с поправкой на совпадающие значения; положительная при монотонном росте.
+    static double mannKendallZ(double[] y) {
+        var n = y.length;
+        if (n < 4) {
+            return 0;
+        }
+        long s = 0;
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                s += (long) Math.signum(y[j] - y[i]);
+            }
+        }
+        var sorted = y.clone();
+        Arrays.sort(sorted);
+        double ties = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && sorted[j] == sorted[i]) {
+                j++;
+            }
+            double t = j - i;
+            ties += t * (t - 1) * (2 * t + 5);
+            i = j;
+        }
+        var variance = (n * (n - 1.0) * (2 * n + 5) - ties) / 18;
+        if (variance <= 0 || s == 0) {
+            return 0;
+        }
+        return (s > 0 ? s - 1 : s + 1) / Math.sqrt(variance);
+    }
+
+    private static double median(List<Sample> samples, ToDoubleFunction<Sample> value) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        var sorted = samples.stream().mapToDouble(value).sorted().toArray();
+        return sorted[sorted.length / 2];
+    }
+
+    // Занятый heap сразу после последней сборки мусора: не зависит от того, в какой момент окна сняли замер.
+    private static long heapAfterGcMb() {
+        long bytes = 0;
+        for (var pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            var usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (usage != null) {
+                bytes += usage.getUsed();
+            }
+        }
+        return bytes / (1024 * 1024);
+    }
+}
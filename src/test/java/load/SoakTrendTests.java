@@ -0,0 +1,73 @@
+package load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoakTrendTests {
+
+    @DisplayName("Тест Манна — Кендалла: строгий рост и спад")
+    @Test
+    void mannKendallMonotonic() {
+        // n = 10: S = ±45, Var(S) = 10 * 9 * 25 / 18 = 125, z = ±(45 - 1) / sqrt(125)
+        assertEquals(3.93548, Soak.mannKendallZ(new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}), 1e-5);
+        assertEquals(-3.93548, Soak.mannKendallZ(new double[]{10, 9, 8, 7, 6, 5, 4, 3, 2, 1}), 1e-5);
+    }
+
+    @DisplayName("Тест Манна — Кендалла: поправка на совпадающие значения")
+    @Test
+    void mannKendallTies() {
+        // S = 24, Var(S) = (8 * 7 * 21 - 4 * 2 * 1 * 9) / 18 = 61.33
+        assertEquals(2.93684, Soak.mannKendallZ(new double[]{1, 1, 2, 2, 3, 3, 4, 4}), 1e-5);
+    }
+
+    @DisplayName("Тест Манна — Кендалла: постоянный и слишком короткий ряд")
+    @Test
+    void mannKendallNoTrend() {
+        assertEquals(0, Soak.mannKendallZ(new double[]{5, 5, 5, 5, 5, 5}));
+        assertEquals(0, Soak.mannKendallZ(new double[]{1, 2, 3}));
+    }
+
+    @DisplayName("Наклон прямой методом наименьших квадратов")
+    @Test
+    void leastSquaresSlope() {
+        assertEquals(2, Soak.slope(new double[]{0, 1, 2, 3}, new double[]{1, 3, 5, 7}), 1e-9);
+        assertEquals(-0.5, Soak.slope(new double[]{0, 2, 4, 6}, new double[]{3, 2, 1, 0}), 1e-9);
+        assertEquals(0, Soak.slope(new double[]{1, 1, 1}, new double[]{1, 2, 3}));
+        assertEquals(0, Soak.slope(new double[]{1}, new double[]{1}));
+    }
+
+    @DisplayName("Рост числа сессий БД отмечается, стабильные память и задержки - нет")
+    @Test
+    void trendsFlagOnlyGrowingSeries() {
+        var samples = new ArrayList<Soak.Sample>();
+        long[] p99 = {120, 95, 130, 110, 101, 125, 98, 117, 105, 122};
+        for (int i = 0; i < 10; i++) {
+            var sent = (i + 1) * 120;
+            samples.add(new Soak.Sample((i + 1) * 60L, sent, sent, 0, 50, p99[i], 10 + i, sent, sent / 2, sent / 2, 64));
+        }
+        var growing = Soak.trends(samples).stream()
+                .filter(Soak.Trend::isGrowing)
+                .map(Soak.Trend::getMetric)
+                .collect(Collectors.toList());
+        assertEquals(List.of("sessions"), growing);
+    }
+
+    @DisplayName("Значимый, но незначительный по величине рост не считается утечкой")
+    @Test
+    void smallGrowthIsTolerated() {
+        var samples = new ArrayList<Soak.Sample>();
+        for (int i = 0; i < 10; i++) {
+            // heap растёт монотонно, но всего на 9 МБ за прогон при пороге 16 МБ
+            samples.add(new Soak.Sample((i + 1) * 60L, 0, 0, 0, 50, 100, 10, 0, 0, 0, 100 + i));
+        }
+        var heap = Soak.trend("heapMb", samples, Soak.Sample::getHeapMb, 16);
+        assertTrue(heap.getZ() > 1.645, heap.toString());
+        assertFalse(heap.isGrowing(), heap.toString());
+    }
+}
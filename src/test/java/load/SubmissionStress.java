@@ -0,0 +1,231 @@
+package load;
+
+import data.ApiHelper;
+import data.DataHelper;
+import data.SQLHelper;
+import lombok.SneakyThrows;
+import lombok.Value;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SubmissionStress {
+
+    public enum Flow {
+        PAYMENT, CREDIT;
+
+        CompletableFuture<HttpResponse<String>> submit(DataHelper.CardInfo cardInfo) {
+            return this == PAYMENT ? ApiHelper.pay(cardInfo) : ApiHelper.credit(cardInfo);
+        }
+    }
+
+    @Value
+    public static class Burst {
+        List<Flow> flows;
+        int clients;
+        int submissionsPerClient;
+        boolean doubleSubmit;
+    }
+
+    // submissions - логические заявки (двойной клик - одна заявка из двух запросов),
+    // accepted/failed - заявки, на которые хотя бы один запрос принят / ни один не принят,
+    // expectedApproved - принятые заявки по картам, которые симулятор банка должен одобрить.
+    @Value
+    public static class Outcome {
+        int planned;
+        int sent;
+        int submissions;
+        int accepted;
+        int failed;
+        long p50;
+        long p99;
+        long max;
+        long orders;
+        long statusRecords;
+        long duplicateOrders;
+        long orphanedOrders;
+        long lostStatusRecords;
+        long expectedApproved;
+        long approved;
+
+        public boolean isConsistent() {
+            return sent == planned && approved == expectedApproved && failed == 0 && duplicateOrders == 0 && orphanedOrders == 0 && lostStatusRecords == 0
+                    && orders == accepted && statusRecords == accepted;
+        }
+
+        // Тестовый стенд действительно отправил запланированное число запросов.
+        public boolean isRateAchieved() {
+            return sent >= planned * 0.95;
+        }
+    }
+
+    // Каждый клиент отправляет свои заявки последовательно, как браузер; все клиенты стартуют одновременно.
+    @SneakyThrows
+    public static Outcome fire(Burst burst) {
+        var copies = burst.isDoubleSubmit() ? 2 : 1;
+        var recorder = new Recorder(burst.getClients() * burst.getSubmissionsPerClient() * copies);
+        var executor = Executors.newFixedThreadPool(burst.getClients());
+        var start = new CountDownLatch(1);
+        var clients = new ArrayList<Future<?>>();
+        try {
+            for (int client = 0; client < burst.getClients(); client++) {
+                var offset = client;
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < burst.getSubmissionsPerClient(); n++) {
+                        var flow = burst.getFlows().get((offset + n) % burst.getFlows().size());
+                        var cardInfo = DataHelper.getLoadCard(n);
+                        recorder.submit(flow, cardInfo, copies).join();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // Ошибка клиента (нет таблицы карт, исчерпан диапазон) должна ронять сценарий, а не давать пустой результат
+            for (var client : clients) {
+                try {
+                    client.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        }
+        return recorder.outcome();
+    }
+
+    // Открытая модель нагрузки: заявки уходят с заданной частотой независимо от времени ответа.
+    // Карты готовятся заранее, чтобы генерация данных не тормозила поток, задающий темп.
+    @SneakyThrows
+    public static Outcome runAtRate(List<Flow> flows, int perSecond, Duration duration) {
+        var total = (int) (duration.toMillis() * perSecond / 1000);
+        var cards = new ArrayList<DataHelper.CardInfo>(total);
+        for (int n = 0; n < total; n++) {
+            cards.add(DataHelper.getLoadCard(n));
+        }
+        var recorder = new Recorder(total);
+        var scheduler = Executors.newSingleThreadScheduledExecutor();
+        var ticks = new AtomicInteger();
+        scheduler.scheduleAtFixedRate(() -> {
+            var n = ticks.getAndIncrement();
+            if (n < total) {
+                recorder.submit(flows.get(n % flows.size()), cards.get(n), 1);
+            }
+        }, 0, 1_000_000_000L / perSecond, TimeUnit.NANOSECONDS);
+        scheduler.awaitTermination(duration.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.shutdownNow();
+        recorder.awaitAll();
+        return recorder.outcome();
+    }
+
+    // Удваивает частоту, пока не появятся ошибки, дубли или потерянные записи; возвращает последнюю чистую ступень.
+    public static int findMaxSustainableRate(List<Flow> flows, int startRate, int maxRate, Duration step) {
+        var sustained = 0;
+        for (int rate = startRate; rate <= maxRate; rate *= 2) {
+            SQLHelper.clearDB();
+            var outcome = runAtRate(flows, rate, step);
+            System.out.println(rate + " req/s: " + outcome);
+            if (!outcome.isRateAchieved()) {
+                System.out.println("Harness could not offer " + rate + " req/s, only " + outcome.getSent()
+                        + " of " + outcome.getPlanned() + " requests were sent");
+                break;
+            }
+            if (!outcome.isConsistent()) {
+                break;
+            }
+            sustained = rate;
+        }
+        return sustained;
+    }
+
+    private static class Recorder {
+        private final List<CompletableFuture<?>> pending = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private final int planned;
+        private final AtomicInteger sent = new AtomicInteger();
+        private final AtomicInteger submissions = new AtomicInteger();
+        private final AtomicInteger accepted = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger expectedApproved = new AtomicInteger();
+
+        Recorder(int planned) {
+            this.planned = planned;
+        }
+
+        // Одна логическая заявка, отправленная copies раз подряд, как при повторном нажатии кнопки.
+        CompletableFuture<?> submit(Flow flow, DataHelper.CardInfo cardInfo, int copies) {
+            submissions.incrementAndGet();
+            var approve = "APPROVED".equals(DataHelper.getExpectedStatus(cardInfo));
+            var anyAccepted = new AtomicBoolean();
+            var requests = new CompletableFuture<?>[copies];
+            for (int copy = 0; copy < copies; copy++) {
+                sent.incrementAndGet();
+                var start = System.nanoTime();
+                requests[copy] = flow.submit(cardInfo).handle((response, error) -> {
+                    latencies.add((System.nanoTime() - start) / 1_000_000);
+                    if (error == null && response.statusCode() == 200) {
+                        anyAccepted.set(true);
+                    }
+                    return null;
+                });
+            }
+            var future = CompletableFuture.allOf(requests).thenRun(() -> {
+                (anyAccepted.get() ? accepted : failed).incrementAndGet();
+                if (anyAccepted.get() && approve) {
+                    expectedApproved.incrementAndGet();
+                }
+            });
+            pending.add(future);
+            return future;
+        }
+
+        void awaitAll() {
+            CompletableFuture<?>[] futures;
+            synchronized (pending) {
+                futures = pending.toArray(new CompletableFuture<?>[0]);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+
+        Outcome outcome() {
+            awaitAll();
+            List<Long> sorted;
+            synchronized (latencies) {
+                sorted = new ArrayList<>(latencies);
+            }
+            Collections.sort(sorted);
+            // Каждый запрос получает свой transaction_id, поэтому дубли видны только как лишние заказы.
+            var orders = Long.parseLong(SQLHelper.getOrderCount());
+            return new Outcome(planned, sent.get(), submissions.get(), accepted.get(), failed.get(),
+                    percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 1.0),
+                    orders,
+                    SQLHelper.getPaymentCount() + SQLHelper.getCreditRequestCount(),
+                    Math.max(0, orders - accepted.get()),
+                    SQLHelper.getOrphanedOrderCount(),
+                    SQLHelper.getLostStatusCount(),
+                    expectedApproved.get(),
+                    SQLHelper.getApprovedCount());
+        }
+    }
+
+    static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        var index = Math.max(0, (int) Math.ceil(p * sorted.size()) - 1);
+        return sorted.get(index);
+    }
+}
@@ -0,0 +1,182 @@
+package load;
+
+import data.DataHelper;
+import lombok.SneakyThrows;
+import lombok.Value;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Воспроизведение журнала симулятора банка (RECORD_FILE) через API приложения с сохранением интервалов
+// между запросами: speed 1 - реальное время, 10 - в 10 раз быстрее, 0 - без пауз.
+public class TrafficReplay {
+
+    @Value
+    public static class Entry {
+        long time;
+        SubmissionStress.Flow flow;
+        String number;
+        String outcome;
+        long gateMicros;
+
+        boolean isAccepted() {
+            return "APPROVED".equals(outcome) || "DECLINED".equals(outcome);
+        }
+    }
+
+    // Задержки сравниваются одноимённые: время обработки в симуляторе при записи и при воспроизведении.
+    // Сквозная задержка приложения приводится отдельно, в записи её нет.
+    @Value
+    public static class Report {
+        int requests;
+        double recordedErrorRate;
+        double replayedErrorRate;
+        int outcomeMismatches;
+        long recordedGateP50Micros;
+        long recordedGateP99Micros;
+        int replayedGateRequests;
+        long replayedGateP50Micros;
+        long replayedGateP99Micros;
+        long appP50;
+        long appP99;
+        long scheduleLagP50;
+        long scheduleLagP99;
+        double elapsedSeconds;
+        double recordedSeconds;
+
+        public double getErrorDrift() {
+            return replayedErrorRate - recordedErrorRate;
+        }
+
+        // Относительное изменение времени обработки в симуляторе; NaN, если журнал воспроизведения недоступен.
+        public double getGateP50Drift() {
+            return drift(recordedGateP50Micros, replayedGateP50Micros);
+        }
+
+        public double getGateP99Drift() {
+            return drift(recordedGateP99Micros, replayedGateP99Micros);
+        }
+
+        private double drift(long recorded, long replayed) {
+            return replayedGateRequests == 0 || recorded == 0 ? Double.NaN : (double) (replayed - recorded) / recorded;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d in %.1f s (recorded %.1f s)%n" +
+                            "error rate: recorded %.4f, replayed %.4f, drift %+.4f, outcome mismatches %d%n" +
+                            "gate service time: recorded p50 %d us, p99 %d us; replayed (%d requests) p50 %d us, p99 %d us; " +
+                            "drift p50 %+.2f, p99 %+.2f%n" +
+                            "app end-to-end latency replayed: p50 %d ms, p99 %d ms%n" +
+                            "schedule lag: p50 %d ms, p99 %d ms",
+                    requests, elapsedSeconds, recordedSeconds,
+                    recordedErrorRate, replayedErrorRate, getErrorDrift(), outcomeMismatches,
+                    recordedGateP50Micros, recordedGateP99Micros, replayedGateRequests, replayedGateP50Micros,
+                    replayedGateP99Micros, getGateP50Drift(), getGateP99Drift(),
+                    appP50, appP99, scheduleLagP50, scheduleLagP99);
+        }
+    }
+
+    @SneakyThrows
+    public static List<Entry> read(Path log) {
+        try (var lines = Files.lines(log)) {
+            return lines.filter(line -> !line.isBlank())
+                    .map(line -> line.split("\t"))
+                    .filter(fields -> fields.length == 5)
+                    .map(fields -> new Entry(Long.parseLong(fields[0]),
+                            "/credit".equals(fields[1]) ? SubmissionStress.Flow.CREDIT : SubmissionStress.Flow.PAYMENT,
+                            fields[2], fields[3], Long.parseLong(fields[4])))
+                    .sorted((a, b) -> Long.compare(a.getTime(), b.getTime()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // gateLog - журнал, который симулятор пишет во время воспроизведения (может совпадать с исходным,
+    // учитываются только строки после начала воспроизведения); null - без сравнения времени обработки.
+    @SneakyThrows
+    public static Report replay(List<Entry> entries, double speed, int maxInFlight, Path gateLog) {
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to replay");
+        }
+        // Данные карт готовятся заранее, чтобы Faker не сбивал темп на ускоренном воспроизведении
+        var cards = entries.stream().map(entry -> DataHelper.getCardWithNumber(entry.getNumber())).collect(Collectors.toList());
+        var inFlight = new Semaphore(maxInFlight);
+        var latencies = Collections.synchronizedList(new ArrayList<Long>());
+        var lags = new ArrayList<Long>();
+        var futures = new ArrayList<CompletableFuture<Boolean>>();
+        var firstTime = entries.get(0).getTime();
+        var wallStart = System.currentTimeMillis();
+        var start = System.nanoTime();
+        for (int i = 0; i < entries.size(); i++) {
+            var entry = entries.get(i);
+            var offset = speed > 0 ? (long) ((entry.getTime() - firstTime) * 1_000_000 / speed) : 0;
+            var wait = start + offset - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            inFlight.acquire();
+            var sent = System.nanoTime();
+            lags.add((sent - start - offset) / 1_000_000);
+            futures.add(entry.getFlow().submit(cards.get(i)).handle((response, error) -> {
+                inFlight.release();
+                latencies.add((System.nanoTime() - sent) / 1_000_000);
+                return error == null && response.statusCode() == 200;
+            }));
+        }
+        var mismatches = 0;
+        var replayedErrors = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            boolean accepted = futures.get(i).join();
+            if (!accepted) {
+                replayedErrors++;
+            }
+            if (accepted != entries.get(i).isAccepted()) {
+                mismatches++;
+            }
+        }
+        var elapsed = (System.nanoTime() - start) / 1e9;
+        var recordedErrors = entries.stream().filter(entry -> !entry.isAccepted()).count();
+        var gate = entries.stream().map(Entry::getGateMicros).sorted().collect(Collectors.toList());
+        var replayedGate = gateLog == null ? List.<Long>of()
+                : awaitGateEntries(gateLog, wallStart, entries.size() - replayedErrors).stream()
+                .map(Entry::getGateMicros).sorted().collect(Collectors.toList());
+        List<Long> replayed;
+        synchronized (latencies) {
+            replayed = new ArrayList<>(latencies);
+        }
+        Collections.sort(replayed);
+        Collections.sort(lags);
+        return new Report(entries.size(),
+                (double) recordedErrors / entries.size(), (double) replayedErrors / entries.size(), mismatches,
+                SubmissionStress.percentile(gate, 0.5), SubmissionStress.percentile(gate, 0.99),
+                replayedGate.size(), SubmissionStress.percentile(replayedGate, 0.5),
+                SubmissionStress.percentile(replayedGate, 0.99),
+                SubmissionStress.percentile(replayed, 0.5), SubmissionStress.percentile(replayed, 0.99),
+                SubmissionStress.percentile(lags, 0.5), SubmissionStress.percentile(lags, 0.99),
+                elapsed, (entries.get(entries.size() - 1).getTime() - firstTime) / 1000.0);
+    }
+
+    // Симулятор пишет журнал через буферизованный поток, поэтому последние строки появляются с задержкой.
+    @SneakyThrows
+    private static List<Entry> awaitGateEntries(Path log, long since, int expected) {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        List<Entry> replayed = List.of();
+        while (System.nanoTime() < deadline) {
+            if (Files.exists(log)) {
+                replayed = read(log).stream().filter(entry -> entry.getTime() >= since).collect(Collectors.toList());
+                if (replayed.size() >= expected) {
+                    break;
+                }
+            }
+            Thread.sleep(100);
+        }
+        return replayed;
+    }
+}
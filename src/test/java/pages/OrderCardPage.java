@@ -3,12 +3,15 @@ package pages;
 import com.codeborne.selenide.Condition;
 import com.codeborne.selenide.SelenideElement;
 import data.DataHelper;
+import support.PageActionEvent;
+import support.Timeouts;
 
-import java.time.Duration;
-
+import static com.codeborne.selenide.Condition.text;
+import static com.codeborne.selenide.Condition.visible;
 import static com.codeborne.selenide.Selenide.*;
 
 public class OrderCardPage {
+    private final SelenideElement heading = $x("//h3[text()[contains(., 'Оплата по карте')]]");
     private final SelenideElement cardNumber = $x("//*[contains(text(), 'Номер карты')]/../*/input");
     private final SelenideElement month = $x("//*[contains(text(), 'Месяц')]/../*/input");
     private final SelenideElement year = $x("//*[contains(text(), 'Год')]/../*/input");
@@ -16,44 +19,60 @@ public class OrderCardPage {
     private final SelenideElement cvc = $x("//*[contains(text(), 'CVC/CVV')]/../*/input");
     private final SelenideElement button = $x("//*[text()[contains(., 'Продолжить')]]");
 
+    public OrderCardPage() {
+        heading.shouldBe(visible);
+        heading.shouldHave(text("Оплата по карте"));
+    }
+
     public void insertCardData(DataHelper.CardInfo cardInfo) {
-        cardNumber.setValue(cardInfo.getCardNumber());
-        month.setValue(cardInfo.getMonth());
-        year.setValue(cardInfo.getYear());
-        cardHolder.setValue(cardInfo.getCardHolder());
-        cvc.setValue(cardInfo.getCvc());
-        button.click();
+        var event = PageActionEvent.begin("OrderCardPage", "insertCardData");
+        try {
+            cardNumber.setValue(cardInfo.getCardNumber());
+            month.setValue(cardInfo.getMonth());
+            year.setValue(cardInfo.getYear());
+            cardHolder.setValue(cardInfo.getCardHolder());
+            cvc.setValue(cardInfo.getCvc());
+            button.click();
+        } finally {
+            event.finish();
+        }
     }
 
 
     public void checkApprovedNotification() {
-        SelenideElement successfulNotification = $(".notification_status_ok .notification__content").shouldHave(Condition.text("Операция одобрена Банком."), Duration.ofMillis(15000));
+        SelenideElement successfulNotification = Timeouts.measure(Timeouts.Wait.NOTIFICATION, timeout ->
+                $(".notification_status_ok .notification__content").shouldHave(Condition.text("Операция одобрена Банком."), timeout));
         successfulNotification.shouldBe(Condition.visible);
     }
 
     public void checkDeclinedNotification() {
-        SelenideElement declineNotification = $(".notification_status_error .notification__content").shouldHave(Condition.text("Ошибка! Банк отказал в проведении операции."), Duration.ofMillis(15000));
+        SelenideElement declineNotification = Timeouts.measure(Timeouts.Wait.NOTIFICATION, timeout ->
+                $(".notification_status_error .notification__content").shouldHave(Condition.text("Ошибка! Банк отказал в проведении операции."), timeout));
         declineNotification.shouldBe(Condition.visible);
     }
 
 
     public void checkWrongFormatNotification() {
-        SelenideElement wrongFormat = $(".input__sub").shouldHave(Condition.text("Неверный формат"));
+        SelenideElement wrongFormat = Timeouts.measure(Timeouts.Wait.FIELD_ERROR, timeout ->
+                $(".input__sub").shouldHave(Condition.text("Неверный формат"), timeout));
         wrongFormat.shouldBe(Condition.visible);
     }
 
     public void checkRequiredFieldNotification() {
-        SelenideElement empty = $(".input__sub").shouldHave(Condition.text("Поле обязательно для заполнения"));
+        SelenideElement empty = Timeouts.measure(Timeouts.Wait.FIELD_ERROR, timeout ->
+                $(".input__sub").shouldHave(Condition.text("Поле обязательно для заполнения"), timeout));
         empty.shouldBe(Condition.visible);
     }
 
     public void checkExpiredNotification() {
-        SelenideElement expired = $(".input__sub").shouldHave(Condition.text("Истёк срок действия карты"));
+        SelenideElement expired = Timeouts.measure(Timeouts.Wait.FIELD_ERROR, timeout ->
+                $(".input__sub").shouldHave(Condition.text("Истёк срок действия карты"), timeout));
         expired.shouldBe(Condition.visible);
     }
 
     public void checkWrongValidityNotification() {
-        SelenideElement expired = $(".input__sub").shouldHave(Condition.text("Неверно указан срок действия карты"));
+        SelenideElement expired = Timeouts.measure(Timeouts.Wait.FIELD_ERROR, timeout ->
+                $(".input__sub").shouldHave(Condition.text("Неверно указан срок действия карты"), timeout));
         expired.shouldBe(Condition.visible);
     }
 }
\ No newline at end of file
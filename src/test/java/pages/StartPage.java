@@ -1,6 +1,8 @@
 package pages;
 
 import com.codeborne.selenide.SelenideElement;
+import support.PageActionEvent;
+import support.PagePerformance;
 
 import static com.codeborne.selenide.Selectors.byText;
 import static com.codeborne.selenide.Selenide.$;
@@ -13,15 +15,30 @@ public class StartPage {
 
     public StartPage() {
         heading.shouldBe(visible);
+        PagePerformance.capturePageLoad("start");
     }
 
     public OrderCardPage goToOrderCardPage() {
-        buyButton.click();
-        return new OrderCardPage();
+        return PagePerformance.captureTransition("order", () -> {
+            var event = PageActionEvent.begin("StartPage", "goToOrderCardPage");
+            try {
+                buyButton.click();
+                return new OrderCardPage();
+            } finally {
+                event.finish();
+            }
+        });
     }
 
     public CreditPage goToCreditPage() {
-        creditButton.click();
-        return new CreditPage();
+        return PagePerformance.captureTransition("credit", () -> {
+            var event = PageActionEvent.begin("StartPage", "goToCreditPage");
+            try {
+                creditButton.click();
+                return new CreditPage();
+            } finally {
+                event.finish();
+            }
+        });
     }
 }
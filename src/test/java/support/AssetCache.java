@@ -0,0 +1,186 @@
+package support;
+
+import com.codeborne.selenide.WebDriverRunner;
+import io.qameta.allure.Allure;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Перехват запросов браузера через CDP (только Chromium): статика приложения после первой загрузки
+// отдаётся из памяти, ненужные тестам картинки, шрифты и сторонние ресурсы блокируются.
+// Включается -Dassets.intercept=true только вместе с -Dperf.capture=false: ответы из перехвата не проходят
+// через эмуляцию сети perf.profile и искажают замеры загрузки страниц PagePerformance.
+public class AssetCache implements BeforeEachCallback, AfterEachCallback, WebDriverListener {
+    private static final boolean requested = Boolean.parseBoolean(System.getProperty("assets.intercept", "false"));
+    private static final boolean perfCapture = Boolean.parseBoolean(System.getProperty("perf.capture", "true"));
+    private static final boolean enabled = requested && !perfCapture;
+    private static final Set<String> blocked = Arrays.stream(System.getProperty("assets.block", "image,font").split(","))
+            .map(String::trim).filter(type -> !type.isEmpty()).collect(Collectors.toSet());
+    private static final boolean blockExternal = Boolean.parseBoolean(System.getProperty("assets.blockExternal", "true"));
+    private static final URI app = URI.create(System.getProperty("app.url", "http://localhost:8080/"));
+    private static final Pattern staticAsset = Pattern.compile(".*\\.(js|css|map|json|html?)$");
+    private static final Map<String, Pattern> assetTypes = Map.of(
+            "image", Pattern.compile(".*\\.(png|jpe?g|gif|svg|webp|ico|bmp)$"),
+            "font", Pattern.compile(".*\\.(woff2?|ttf|otf|eot)$"));
+
+    private static final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, NetworkInterceptor> interceptors = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong bytesSaved = new AtomicLong();
+    private static final AtomicLong millisSaved = new AtomicLong();
+    private static final AtomicLong blockedRequests = new AtomicLong();
+    private static final AtomicLong fetched = new AtomicLong();
+    private static boolean installed;
+
+    private static class Cached {
+        final int status;
+        final List<Map.Entry<String, String>> headers;
+        final byte[] body;
+        final long millis;
+
+        Cached(HttpResponse response, byte[] body, long millis) {
+            this.status = response.getStatus();
+            this.headers = new ArrayList<>();
+            for (var name : response.getHeaderNames()) {
+                // Тело уже распаковано, поэтому заголовки кодирования и длины не переносятся.
+                if (!name.equalsIgnoreCase("Content-Encoding") && !name.equalsIgnoreCase("Content-Length")
+                        && !name.equalsIgnoreCase("Transfer-Encoding")) {
+                    for (var value : response.getHeaders(name)) {
+                        headers.add(Map.entry(name, value));
+                    }
+                }
+            }
+            this.body = body;
+            this.millis = millis;
+        }
+
+        HttpResponse toResponse() {
+            var response = new HttpResponse().setStatus(status).setContent(Contents.bytes(body));
+            headers.forEach(header -> response.addHeader(header.getKey(), header.getValue()));
+            return response;
+        }
+    }
+
+    // Перехват подключается слушателем WebDriver до первой загрузки страницы, как и настройки PagePerformance.
+    public static synchronized void install() {
+        if (requested && perfCapture) {
+            System.err.println("Asset interception is off: it would distort page-load metrics, pass -Dperf.capture=false");
+        }
+        if (enabled && !installed) {
+            WebDriverRunner.addListener(new AssetCache());
+            installed = true;
+        }
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        if (enabled) {
+            resetStats();
+        }
+    }
+
+    @Override
+    public void beforeGet(WebDriver driver, String url) {
+        if (!(driver instanceof HasDevTools) || interceptors.containsKey(driver)) {
+            return;
+        }
+        try {
+            interceptors.put(driver, new NetworkInterceptor(driver, (Filter) next -> request -> intercept(request, next)));
+        } catch (RuntimeException e) {
+            System.err.println("Asset interception is unavailable, continuing without it: " + e);
+            interceptors.put(driver, null);
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        if (!enabled || hits.get() + blockedRequests.get() + fetched.get() == 0) {
+            return;
+        }
+        var summary = String.format("Served from cache: %d requests, %d KB, %d ms; blocked: %d requests; fetched: %d requests",
+                hits.get(), bytesSaved.get() / 1024, millisSaved.get(), blockedRequests.get(), fetched.get());
+        Allure.addAttachment("Browser assets", "text/plain", summary, ".txt");
+        System.out.println(context.getDisplayName() + ": " + summary);
+    }
+
+    private static HttpResponse intercept(HttpRequest request, HttpHandler next) {
+        URI uri;
+        try {
+            uri = URI.create(request.getUri());
+        } catch (IllegalArgumentException e) {
+            return next.execute(request);
+        }
+        var path = uri.getPath() == null ? "" : uri.getPath().toLowerCase();
+        if (isBlocked(request, uri, path)) {
+            blockedRequests.incrementAndGet();
+            return new HttpResponse().setStatus(204);
+        }
+        var cacheable = request.getMethod() == HttpMethod.GET && isApp(uri) && !path.startsWith("/api/")
+                && staticAsset.matcher(path).matches();
+        if (cacheable) {
+            var cached = cache.get(request.getUri());
+            if (cached != null) {
+                hits.incrementAndGet();
+                bytesSaved.addAndGet(cached.body.length);
+                millisSaved.addAndGet(cached.millis);
+                return cached.toResponse();
+            }
+        }
+        fetched.incrementAndGet();
+        var start = System.nanoTime();
+        var response = next.execute(request);
+        if (cacheable && response.getStatus() == 200) {
+            var body = Contents.bytes(response.getContent());
+            var millis = (System.nanoTime() - start) / 1_000_000;
+            cache.put(request.getUri(), new Cached(response, body, millis));
+            response.setContent(Contents.bytes(body));
+        }
+        return response;
+    }
+
+    private static boolean isBlocked(HttpRequest request, URI uri, String path) {
+        if (blockExternal && !isApp(uri) && !"data".equals(uri.getScheme())) {
+            return true;
+        }
+        var destination = request.getHeader("Sec-Fetch-Dest");
+        if (destination != null && blocked.contains(destination)) {
+            return true;
+        }
+        return blocked.stream().map(assetTypes::get).anyMatch(type -> type != null && type.matcher(path).matches());
+    }
+
+    private static boolean isApp(URI uri) {
+        return app.getHost().equalsIgnoreCase(uri.getHost()) && app.getPort() == uri.getPort();
+    }
+
+    private static void resetStats() {
+        hits.set(0);
+        bytesSaved.set(0);
+        millisSaved.set(0);
+        blockedRequests.set(0);
+        fetched.set(0);
+    }
+}
@@ -0,0 +1,114 @@
+package support;
+
+import com.codeborne.selenide.WebDriverRunner;
+import io.qameta.allure.Allure;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Скриншот и исходный код страницы при падении теста (и у доли sampleRate успешных).
+// На потоке теста снимаются только сырые данные, сжатие и запись в allure-results идут в фоне,
+// при заполненной очереди задача выполняется на потоке теста.
+public class AttachmentPipeline implements AfterEachCallback {
+    private static final double sampleRate = Double.parseDouble(System.getProperty("attachments.sampleRate", "0"));
+    private static final boolean jpeg = !"png".equals(System.getProperty("attachments.format", "jpeg"));
+    private static final float jpegQuality = Float.parseFloat(System.getProperty("attachments.jpegQuality", "0.7"));
+    private static final int queueSize = Integer.getInteger("attachments.queue", 32);
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 2, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize), runnable -> {
+        var thread = new Thread(runnable, "allure-attachments");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.CallerRunsPolicy());
+    private static final ConcurrentLinkedQueue<Future<?>> pending = new ConcurrentLinkedQueue<>();
+
+    // AfterEach, а не AfterTestExecution: так видны и падения в @BeforeEach (open, бюджеты загрузки страницы).
+    @Override
+    public void afterEach(ExtensionContext context) {
+        var failed = context.getExecutionException().isPresent();
+        if (!failed && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        if (!WebDriverRunner.hasWebDriverStarted()) {
+            return;
+        }
+        var driver = WebDriverRunner.getWebDriver();
+        var lifecycle = Allure.getLifecycle();
+        var screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        var pageSource = driver.getPageSource();
+        var screenshotSource = jpeg
+                ? lifecycle.prepareAttachment("Screenshot", "image/jpeg", ".jpg")
+                : lifecycle.prepareAttachment("Screenshot", "image/png", ".png");
+        var pageSourceSource = lifecycle.prepareAttachment("Page source", "text/html", ".html");
+        submit(() -> lifecycle.writeAttachment(screenshotSource, new ByteArrayInputStream(jpeg ? toJpeg(screenshot) : screenshot)));
+        submit(() -> lifecycle.writeAttachment(pageSourceSource,
+                new ByteArrayInputStream(pageSource.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    public static void flush() {
+        Future<?> task;
+        while ((task = pending.poll()) != null) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.err.println("Failed to write Allure attachment: " + e.getCause());
+            }
+        }
+    }
+
+    private static void submit(Runnable task) {
+        // Завершённые задачи убираются сразу, ошибки записи логируются в самой задаче.
+        pending.removeIf(Future::isDone);
+        pending.add(executor.submit(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Failed to write Allure attachment: " + e);
+            }
+        }));
+    }
+
+    private static byte[] toJpeg(byte[] png) {
+        try {
+            var image = ImageIO.read(new ByteArrayInputStream(png));
+            var rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            var graphics = rgb.createGraphics();
+            graphics.drawImage(image, 0, 0, null);
+            graphics.dispose();
+            var writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            var param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            var out = new ByteArrayOutputStream();
+            try (var stream = ImageIO.createImageOutputStream(out)) {
+                writer.setOutput(stream);
+                writer.write(null, new IIOImage(rgb, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            return out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            return png;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package support;
+
+import io.qameta.allure.listener.TestLifecycleListener;
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+
+// Тест, пропущенный TestImpact, показывается в Allure как PASSED с длительностью последнего прохождения
+// и меткой cached: иначе отчёт выборочного прогона выглядел бы как набор пропущенных тестов.
+// JUnit и Gradle по-прежнему считают такие тесты пропущенными.
+public class CachedResult implements TestLifecycleListener {
+    private static final Pattern duration = Pattern.compile("cached result PASSED in (\\d+) ms");
+
+    @Override
+    public void beforeTestWrite(TestResult result) {
+        var details = result.getStatusDetails();
+        if (result.getStatus() != Status.SKIPPED || details == null || details.getMessage() == null
+                || !details.getMessage().startsWith(TestImpact.cachedReason)) {
+            return;
+        }
+        result.setStatus(Status.PASSED);
+        var millis = duration.matcher(details.getMessage());
+        if (millis.find() && result.getStart() != null) {
+            result.setStop(result.getStart() + Long.parseLong(millis.group(1)));
+        }
+        var labels = result.getLabels() == null ? new ArrayList<Label>() : new ArrayList<>(result.getLabels());
+        labels.add(new Label().setName("tag").setValue("cached"));
+        result.setLabels(labels);
+    }
+}
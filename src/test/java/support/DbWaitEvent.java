@@ -0,0 +1,34 @@
+package support;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("diplom.DbWait")
+@Label("DB wait")
+@Category("Diplom QA")
+public class DbWaitEvent extends Event {
+    @Label("Caller")
+    String caller;
+
+    @Label("Wait")
+    String wait;
+
+    private transient long started;
+
+    public static DbWaitEvent begin(String caller, String wait) {
+        var event = new DbWaitEvent();
+        event.caller = caller;
+        event.wait = wait;
+        event.started = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    // Завершает событие JFR и пишет длительность ожидания записи в БД в метрики прогона.
+    public void finish(String status) {
+        commit();
+        RunMetrics.record("db", caller, wait, started, status);
+    }
+}
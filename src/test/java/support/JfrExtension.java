@@ -0,0 +1,187 @@
+package support;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResultContainer;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Запись Java Flight Recorder вокруг каждого теста (jfr.scope=test) или всего класса (jfr.scope=class).
+// Включается -Djfr.enabled=true, сводка по горячим методам, аллокациям, SQL-запросам и действиям на страницах
+// попадает в отчёт Allure.
+public class JfrExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, AfterEachCallback {
+    private static final boolean enabled = Boolean.getBoolean("jfr.enabled");
+    private static final boolean classScope = "class".equals(System.getProperty("jfr.scope", "test"));
+    private static final Path dir = Path.of(System.getProperty("jfr.dir", "build/jfr"));
+    private static final int top = 15;
+    private static final ExtensionContext.Namespace namespace = ExtensionContext.Namespace.create(JfrExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws Exception {
+        if (enabled && classScope) {
+            start(context);
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) throws Exception {
+        if (enabled && classScope) {
+            stop(context);
+        }
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws Exception {
+        if (enabled && !classScope) {
+            start(context);
+        }
+        if (enabled && classScope) {
+            Allure.getLifecycle().getCurrentTestCase().ifPresent(uuid -> children(context).add(uuid));
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws Exception {
+        if (enabled && !classScope) {
+            stop(context);
+        }
+    }
+
+    private static void start(ExtensionContext context) throws Exception {
+        var recording = new Recording(Configuration.getConfiguration("profile"));
+        recording.setName(context.getUniqueId());
+        recording.enable(SqlQueryEvent.class);
+        recording.enable(PageActionEvent.class);
+        recording.enable(DbWaitEvent.class);
+        recording.start();
+        context.getStore(namespace).put(Recording.class, recording);
+        context.getStore(namespace).put("children", Collections.synchronizedList(new ArrayList<String>()));
+    }
+
+    // Результаты Allure тестов класса, к которым привязывается сводка записи в режиме jfr.scope=class.
+    @SuppressWarnings("unchecked")
+    private static List<String> children(ExtensionContext context) {
+        return context.getStore(namespace).get("children", List.class);
+    }
+
+    private static void stop(ExtensionContext context) throws IOException {
+        var recording = context.getStore(namespace).remove(Recording.class, Recording.class);
+        if (recording == null) {
+            return;
+        }
+        try (recording) {
+            recording.stop();
+            Files.createDirectories(dir);
+            var name = context.getRequiredTestClass().getSimpleName()
+                    + context.getTestMethod().map(method -> "." + method.getName()).orElse("");
+            var file = dir.resolve(name + ".jfr");
+            recording.dump(file);
+            attach("JFR profile " + name, file.toAbsolutePath() + "\n\n" + summarize(file), children(context));
+        }
+    }
+
+    private static String summarize(Path file) throws IOException {
+        var hotMethods = new HashMap<String, Long>();
+        var allocations = new HashMap<String, Long>();
+        var queries = new HashMap<String, Duration>();
+        var actions = new HashMap<String, Duration>();
+        var dbWaits = new HashMap<String, Duration>();
+        for (var event : RecordingFile.readAllEvents(file)) {
+            switch (event.getEventType().getName()) {
+                case "jdk.ExecutionSample":
+                    hotMethods.merge(topFrame(event), 1L, Long::sum);
+                    break;
+                case "jdk.ObjectAllocationSample":
+                    allocations.merge(allocationSite(event), event.getLong("weight"), Long::sum);
+                    break;
+                case "jdk.ObjectAllocationInNewTLAB":
+                    allocations.merge(allocationSite(event), event.getLong("tlabSize"), Long::sum);
+                    break;
+                case "diplom.SqlQuery":
+                    queries.merge(event.getString("query"), event.getDuration(), Duration::plus);
+                    break;
+                case "diplom.PageAction":
+                    actions.merge(event.getString("page") + "." + event.getString("action"), event.getDuration(), Duration::plus);
+                    break;
+                case "diplom.DbWait":
+                    dbWaits.merge(event.getString("caller") + "." + event.getString("wait"), event.getDuration(), Duration::plus);
+                    break;
+                default:
+            }
+        }
+        return section("Hot methods (execution samples)", hotMethods, String::valueOf)
+                + section("Allocation sites (bytes)", allocations, String::valueOf)
+                + section("SQL queries (total ms)", queries, duration -> String.valueOf(duration.toMillis()))
+                + section("Page actions (total ms)", actions, duration -> String.valueOf(duration.toMillis()))
+                + section("DB waits (total ms)", dbWaits, duration -> String.valueOf(duration.toMillis()));
+    }
+
+    private static String topFrame(RecordedEvent event) {
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<unknown>";
+        }
+        var frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static String allocationSite(RecordedEvent event) {
+        return event.getClass("objectClass").getName() + " at " + topFrame(event);
+    }
+
+    private static <V extends Comparable<V>> String section(String title, Map<String, V> values,
+                                                            Function<V, String> format) {
+        List<Map.Entry<String, V>> sorted = values.entrySet().stream()
+                .sorted(Map.Entry.<String, V>comparingByValue().reversed())
+                .limit(top)
+                .collect(Collectors.toList());
+        return sorted.stream()
+                .map(entry -> String.format("%12s  %s", format.apply(entry.getValue()), entry.getKey()))
+                .collect(Collectors.joining("\n", title + ":\n", "\n\n"));
+    }
+
+    // После всех тестов класса текущего теста в Allure нет: сводка прикладывается к контейнеру тестов класса
+    // как завершающая фикстура и не добавляет в отчёт лишний тест.
+    private static void attach(String name, String summary, List<String> children) {
+        var lifecycle = Allure.getLifecycle();
+        if (lifecycle.getCurrentTestCase().isPresent()) {
+            Allure.addAttachment(name, "text/plain", summary, ".txt");
+            return;
+        }
+        var containerUuid = UUID.randomUUID().toString();
+        var fixtureUuid = UUID.randomUUID().toString();
+        lifecycle.startTestContainer(new TestResultContainer()
+                .setUuid(containerUuid)
+                .setName(name)
+                .setChildren(children == null ? new ArrayList<>() : new ArrayList<>(children)));
+        lifecycle.startTearDownFixture(containerUuid, fixtureUuid, new FixtureResult()
+                .setName(name)
+                .setStatus(Status.PASSED));
+        lifecycle.addAttachment(name, "text/plain", ".txt", summary.getBytes(StandardCharsets.UTF_8));
+        lifecycle.stopFixture(fixtureUuid);
+        lifecycle.stopTestContainer(containerUuid);
+        lifecycle.writeTestContainer(containerUuid);
+    }
+}
@@ -0,0 +1,26 @@
+package support;
+
+import io.qameta.allure.listener.TestLifecycleListener;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.TestResult;
+
+import java.util.ArrayList;
+
+// В матричном прогоне (-Dmatrix.db) СУБД становится частью идентичности теста в Allure: без этого результаты
+// MySQL и PostgreSQL получают одинаковый historyId, и отчёт показывает один из них как повтор другого.
+public class MatrixDatabase implements TestLifecycleListener {
+    private static final String db = System.getProperty("matrix.db", "");
+
+    @Override
+    public void beforeTestWrite(TestResult result) {
+        if (db.isBlank()) {
+            return;
+        }
+        var parameters = result.getParameters() == null ? new ArrayList<Parameter>() : new ArrayList<>(result.getParameters());
+        parameters.add(new Parameter().setName("db").setValue(db));
+        result.setParameters(parameters);
+        if (result.getHistoryId() != null) {
+            result.setHistoryId(result.getHistoryId() + ":" + db);
+        }
+    }
+}
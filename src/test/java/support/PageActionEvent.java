@@ -0,0 +1,38 @@
+package support;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("diplom.PageAction")
+@Label("Page action")
+@Category("Diplom QA")
+public class PageActionEvent extends Event {
+    @Label("Page")
+    String page;
+
+    @Label("Action")
+    String action;
+
+    private transient long started;
+
+    public static PageActionEvent begin(String page, String action) {
+        var event = new PageActionEvent();
+        event.page = page;
+        event.action = action;
+        event.started = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    // Завершает событие JFR и пишет длительность действия в метрики прогона.
+    public void finish() {
+        finish(null);
+    }
+
+    public void finish(String status) {
+        commit();
+        RunMetrics.record("page", page, action, started, status);
+    }
+}
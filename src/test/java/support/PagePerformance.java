@@ -0,0 +1,115 @@
+package support;
+
+import com.codeborne.selenide.WebDriverRunner;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+import static com.codeborne.selenide.Selenide.executeJavaScript;
+
+// Navigation/Resource Timing и long tasks для каждого перехода между страницами, с проверкой бюджетов perf.budget.*
+public class PagePerformance implements WebDriverListener {
+    private static final boolean enabled = Boolean.parseBoolean(System.getProperty("perf.capture", "true"));
+    private static final String profile = System.getProperty("perf.profile", "none");
+    private static final double cpuRate = Double.parseDouble(System.getProperty("perf.cpu", "1"));
+    private static final Gson gson = new Gson();
+    private static final Set<WebDriver> prepared = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private static boolean installed;
+
+    private static final Map<String, Map<String, Object>> networkProfiles = Map.of(
+            "fast3g", Map.of("offline", false, "latency", 150, "downloadThroughput", 204800, "uploadThroughput", 96000),
+            "slow3g", Map.of("offline", false, "latency", 400, "downloadThroughput", 51200, "uploadThroughput", 51200));
+
+    private static final String longTaskObserver = "window.__longTasks = window.__longTasks || [];" +
+            "if (!window.__longTaskObserver && window.PerformanceObserver) {" +
+            "  window.__longTaskObserver = new PerformanceObserver(list => list.getEntries().forEach(e =>" +
+            "    window.__longTasks.push({start: e.startTime, duration: e.duration})));" +
+            "  try { window.__longTaskObserver.observe({type: 'longtask', buffered: true}); } catch (e) {}" +
+            "}";
+
+    private static final String collect = "const since = arguments[0], end = arguments[1] ? arguments[1] : performance.now();" +
+            "const nav = performance.getEntriesByType('navigation')[0];" +
+            "return JSON.stringify({" +
+            "  duration: end - since," +
+            "  navigation: since === 0 && nav ? nav.toJSON() : null," +
+            "  resources: performance.getEntriesByType('resource').filter(r => r.startTime >= since).map(r =>" +
+            "    ({name: r.name, type: r.initiatorType, start: r.startTime, duration: r.duration, size: r.transferSize}))," +
+            "  longTasks: (window.__longTasks || []).filter(t => t.start >= since)" +
+            "});";
+
+    public static synchronized void install() {
+        if (enabled && !installed) {
+            WebDriverRunner.addListener(new PagePerformance());
+            installed = true;
+        }
+    }
+
+    // Первая загрузка страницы: отсчёт от начала навигации до loadEventEnd.
+    public static void capturePageLoad(String page) {
+        if (!enabled) {
+            return;
+        }
+        executeJavaScript(longTaskObserver);
+        Number loadEnd = executeJavaScript("const nav = performance.getEntriesByType('navigation')[0];" +
+                "return nav && nav.loadEventEnd > 0 ? nav.loadEventEnd : null;");
+        report(page, executeJavaScript(collect, 0, loadEnd));
+    }
+
+    // Переход внутри одностраничного приложения: от действия до появления целевой формы.
+    public static <T> T captureTransition(String page, Supplier<T> transition) {
+        if (!enabled) {
+            return transition.get();
+        }
+        executeJavaScript(longTaskObserver);
+        Number since = executeJavaScript("return performance.now();");
+        var target = transition.get();
+        report(page, executeJavaScript(collect, since, null));
+        return target;
+    }
+
+    private static void report(String page, String json) {
+        Allure.addAttachment("Performance: " + page, "application/json", json, ".json");
+        var metrics = gson.fromJson(json, JsonObject.class);
+        var duration = metrics.get("duration").getAsDouble();
+        var blocking = 0.0;
+        for (var task : metrics.getAsJsonArray("longTasks")) {
+            blocking += task.getAsJsonObject().get("duration").getAsDouble() - 50;
+        }
+        checkBudget("perf.budget." + page, page + " load", duration);
+        checkBudget("perf.budget.blocking", page + " total blocking time", blocking);
+    }
+
+    private static void checkBudget(String property, String metric, double actual) {
+        var budget = System.getProperty(property);
+        if (budget != null && !budget.isBlank() && actual > Double.parseDouble(budget)) {
+            throw new AssertionError(String.format("%s took %.0f ms, budget %s ms (%s, profile %s)",
+                    metric, actual, budget, property, profile));
+        }
+    }
+
+    @Override
+    public void beforeGet(WebDriver driver, String url) {
+        if (!(driver instanceof HasCdp) || !prepared.add(driver)) {
+            return;
+        }
+        var cdp = (HasCdp) driver;
+        cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", longTaskObserver));
+        var network = networkProfiles.get(profile);
+        if (network != null) {
+            cdp.executeCdpCommand("Network.enable", Map.of());
+            cdp.executeCdpCommand("Network.emulateNetworkConditions", network);
+        }
+        if (cpuRate > 1) {
+            cdp.executeCdpCommand("Emulation.setCPUThrottlingRate", Map.of("rate", cpuRate));
+        }
+    }
+}
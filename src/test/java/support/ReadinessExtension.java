@@ -0,0 +1,219 @@
+package support;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+public class ReadinessExtension implements BeforeAllCallback {
+    private static final Duration timeout = Duration.ofSeconds(Long.parseLong(System.getProperty("readiness.timeout", "60")));
+    private static final String appUrl = System.getProperty("app.url", "http://localhost:8080/");
+    private static final String gateUrl = System.getProperty("gate.url", "http://localhost:9999/");
+    private static final String dbUrl = System.getProperty("db.url");
+    private static final String dbUser = System.getProperty("db.user");
+    private static final String dbPassword = System.getProperty("db.password");
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        var report = context.getRoot().getStore(ExtensionContext.Namespace.GLOBAL)
+                .getOrComputeIfAbsent(ReadinessExtension.class, key -> awaitDependencies(), Report.class);
+        if (!report.isReady()) {
+            throw new IllegalStateException(report.toString());
+        }
+    }
+
+    private static Report awaitDependencies() {
+        var probes = List.of(
+                new Probe("app " + appUrl, ReadinessExtension::checkApp),
+                new Probe("gate " + gateUrl, ReadinessExtension::checkGate),
+                new Probe("db " + dbUrl, ReadinessExtension::checkDatabase));
+        var deadline = System.nanoTime() + timeout.toNanos();
+        var aborted = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(probes.size(), runnable -> {
+            var thread = new Thread(runnable, "readiness-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            var futures = probes.stream()
+                    .map(probe -> CompletableFuture.supplyAsync(() -> probe.await(deadline, aborted), executor))
+                    .collect(Collectors.toList());
+            var results = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+            var report = new Report(results);
+            System.out.println(report);
+            return report;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void checkApp(Duration attemptTimeout) throws Exception {
+        var client = HttpClient.newBuilder().connectTimeout(attemptTimeout).build();
+        var request = HttpRequest.newBuilder(URI.create(appUrl)).timeout(attemptTimeout).GET().build();
+        var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 500) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+    }
+
+    private static void checkGate(Duration attemptTimeout) throws Exception {
+        var uri = URI.create(gateUrl);
+        try (var socket = new Socket()) {
+            socket.connect(new InetSocketAddress(uri.getHost(), uri.getPort()), (int) attemptTimeout.toMillis());
+        }
+    }
+
+    private static void checkDatabase(Duration attemptTimeout) throws Exception {
+        if (dbUrl == null || dbUrl.isBlank()) {
+            throw new FatalProbeException("db.url is not set, pass -Ddb.url=jdbc:...");
+        }
+        // Таймаут передаётся свойством соединения: DriverManager.setLoginTimeout действует на весь JVM
+        var properties = new Properties();
+        if (dbUser != null) {
+            properties.setProperty("user", dbUser);
+        }
+        if (dbPassword != null) {
+            properties.setProperty("password", dbPassword);
+        }
+        if (dbUrl.startsWith("jdbc:postgresql")) {
+            var seconds = String.valueOf(Math.max(1, attemptTimeout.toSeconds()));
+            properties.setProperty("loginTimeout", seconds);
+            properties.setProperty("connectTimeout", seconds);
+        } else {
+            properties.setProperty("connectTimeout", String.valueOf(Math.max(1000, attemptTimeout.toMillis())));
+        }
+        try (var conn = DriverManager.getConnection(dbUrl, properties);
+             var statement = conn.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, attemptTimeout.toSeconds()));
+            statement.execute("SELECT 1");
+        } catch (SQLException e) {
+            // 28xxx - ошибка авторизации, ожиданием её не исправить
+            if (e.getSQLState() != null && e.getSQLState().startsWith("28")) {
+                throw new FatalProbeException(e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        void run(Duration attemptTimeout) throws Exception;
+    }
+
+    private static class FatalProbeException extends Exception {
+        FatalProbeException(String message) {
+            super(message);
+        }
+    }
+
+    private static class Probe {
+        private static final long initialBackoff = 50;
+        private static final long maxBackoff = 1000;
+        private static final long maxAttemptTimeout = 2000;
+
+        private final String name;
+        private final Check check;
+
+        Probe(String name, Check check) {
+            this.name = name;
+            this.check = check;
+        }
+
+        Result await(long deadline, AtomicBoolean aborted) {
+            var start = System.nanoTime();
+            var backoff = initialBackoff;
+            var attempts = 0;
+            Exception lastError = null;
+            while (!aborted.get()) {
+                var remaining = (deadline - System.nanoTime()) / 1_000_000;
+                if (remaining <= 0) {
+                    break;
+                }
+                attempts++;
+                try {
+                    check.run(Duration.ofMillis(Math.min(remaining, maxAttemptTimeout)));
+                    return new Result(name, true, elapsed(start), attempts, null);
+                } catch (FatalProbeException | UnknownHostException e) {
+                    aborted.set(true);
+                    return new Result(name, false, elapsed(start), attempts, e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return new Result(name, false, elapsed(start), attempts, e);
+                } catch (Exception e) {
+                    lastError = e;
+                }
+                try {
+                    Thread.sleep(Math.min(backoff, Math.max(0, (deadline - System.nanoTime()) / 1_000_000)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoff = Math.min(backoff * 2, maxBackoff);
+            }
+            return new Result(name, false, elapsed(start), attempts, lastError);
+        }
+
+        private static long elapsed(long start) {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    private static class Result {
+        private final String name;
+        private final boolean ready;
+        private final long millis;
+        private final int attempts;
+        private final Exception error;
+
+        Result(String name, boolean ready, long millis, int attempts, Exception error) {
+            this.name = name;
+            this.ready = ready;
+            this.millis = millis;
+            this.attempts = attempts;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            if (ready) {
+                return String.format("  %s - ready in %d ms (%d attempts)", name, millis, attempts);
+            }
+            var cause = error == null ? "aborted" : error.getClass().getSimpleName() + ": " + error.getMessage();
+            return String.format("  %s - NOT READY after %d ms (%d attempts): %s", name, millis, attempts, cause);
+        }
+    }
+
+    private static class Report {
+        private final List<Result> results;
+
+        Report(List<Result> results) {
+            this.results = results;
+        }
+
+        boolean isReady() {
+            return results.stream().allMatch(result -> result.ready);
+        }
+
+        @Override
+        public String toString() {
+            var header = isReady() ? "Dependencies ready:" : "Dependencies not ready within " + timeout.toSeconds() + " s:";
+            return results.stream().map(Result::toString).collect(Collectors.joining("\n", header + "\n", ""));
+        }
+    }
+}
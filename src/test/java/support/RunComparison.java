@@ -0,0 +1,263 @@
+package support;
+
+import com.google.gson.Gson;
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Сравнение прогонов из .metrics: последнего (кандидат) с несколькими предыдущими (база).
+// Для каждой группы замеров (тест, действие на странице, SQL-запрос, запрос к API, путь симулятора) -
+// медианы и U-критерий Манна — Уитни. Тесты, кроме того, сравниваются попарно (критерий Уилкоксона
+// по медианам каждого теста) по классу и по всему набору: учитываются только тесты, которые есть в обоих
+// прогонах, поэтому пропуски TestImpact и упавшие тесты не меняют состав сравнения.
+// Замедление засчитывается, если различие значимо и медиана выросла больше чем на compare.minChange.
+public class RunComparison {
+    private static final double alpha = Double.parseDouble(System.getProperty("compare.alpha", "0.05"));
+    private static final double minChange = Double.parseDouble(System.getProperty("compare.minChange", "0.1"));
+    private static final int minSamples = Integer.getInteger("compare.minSamples", 5);
+    private static final int baselineRuns = Integer.getInteger("compare.baselineRuns", 3);
+    private static final Gson gson = new Gson();
+
+    @Value
+    public static class Difference {
+        String key;
+        int baselineCount;
+        int candidateCount;
+        double baselineMedian;
+        double candidateMedian;
+        double change;
+        double pValue;
+
+        public boolean isSignificant() {
+            return baselineCount >= minSamples && candidateCount >= minSamples && pValue < alpha;
+        }
+
+        public boolean isRegression() {
+            return isSignificant() && getChange() > minChange;
+        }
+
+        public boolean isImprovement() {
+            return isSignificant() && getChange() < -minChange;
+        }
+
+        @Override
+        public String toString() {
+            var verdict = isRegression() ? "SLOWER" : isImprovement() ? "faster" : "";
+            return String.format("%-70.70s %5d %5d %10.1f %10.1f %+7.1f%% %7.4f  %s", key, baselineCount, candidateCount,
+                    baselineMedian, candidateMedian, getChange() * 100, pValue, verdict);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        var dir = Path.of(System.getProperty("metrics.dir", ".metrics"));
+        List<Path> baseline;
+        Path candidate;
+        if (args.length >= 2) {
+            baseline = Arrays.stream(args, 0, args.length - 1).map(Path::of).collect(Collectors.toList());
+            candidate = Path.of(args[args.length - 1]);
+        } else {
+            var runs = latestRuns(dir);
+            if (runs.size() < 2) {
+                System.err.println("Usage: RunComparison <baseline.ndjson>... <candidate.ndjson>, or keep two runs in " + dir);
+                System.exit(2);
+                return;
+            }
+            baseline = runs.subList(Math.max(0, runs.size() - 1 - baselineRuns), runs.size() - 1);
+            candidate = runs.get(runs.size() - 1);
+        }
+        var before = new TreeMap<String, List<Double>>();
+        for (var run : baseline) {
+            read(run).forEach((key, values) -> before.computeIfAbsent(key, k -> new ArrayList<>()).addAll(values));
+        }
+        var differences = compare(before, read(candidate));
+        System.out.println("Baseline:  " + baseline);
+        System.out.println("Candidate: " + candidate);
+        System.out.println(String.format("%-70s %5s %5s %10s %10s %8s %7s", "group", "n1", "n2", "median1 ms", "median2 ms", "change", "p"));
+        differences.forEach(System.out::println);
+        var regressions = differences.stream().filter(Difference::isRegression).collect(Collectors.toList());
+        if (!regressions.isEmpty()) {
+            System.out.println(regressions.size() + " significant slowdown(s) over " + Math.round(minChange * 100) + "%");
+            if (Boolean.parseBoolean(System.getProperty("compare.failOnRegression", "true"))) {
+                System.exit(1);
+            }
+        }
+    }
+
+    public static List<Difference> compare(Map<String, List<Double>> baseline, Map<String, List<Double>> candidate) {
+        var differences = new ArrayList<Difference>();
+        var pairedBefore = new TreeMap<String, List<Double>>();
+        var pairedAfter = new TreeMap<String, List<Double>>();
+        for (var key : baseline.keySet()) {
+            var before = baseline.get(key);
+            var after = candidate.get(key);
+            if (after == null) {
+                continue;
+            }
+            var baselineMedian = median(before);
+            var candidateMedian = median(after);
+            differences.add(new Difference(key, before.size(), after.size(), baselineMedian, candidateMedian,
+                    change(baselineMedian, candidateMedian), mannWhitneyP(before, after)));
+            if (key.startsWith("test ")) {
+                var testClass = key.substring(0, key.indexOf('#')) + " (paired)";
+                for (var group : List.of(testClass, "test * (paired)")) {
+                    pairedBefore.computeIfAbsent(group, k -> new ArrayList<>()).add(baselineMedian);
+                    pairedAfter.computeIfAbsent(group, k -> new ArrayList<>()).add(candidateMedian);
+                }
+            }
+        }
+        pairedBefore.forEach((group, before) -> differences.add(paired(group, before, pairedAfter.get(group))));
+        return differences;
+    }
+
+    // Парное сравнение: логарифмы отношений медиан каждого теста, изменение - по медиане отношений.
+    static Difference paired(String key, List<Double> before, List<Double> after) {
+        var ratios = new ArrayList<Double>();
+        for (int i = 0; i < before.size(); i++) {
+            if (before.get(i) > 0 && after.get(i) > 0) {
+                ratios.add(Math.log(after.get(i) / before.get(i)));
+            }
+        }
+        return new Difference(key, ratios.size(), ratios.size(), median(before), median(after),
+                ratios.isEmpty() ? 0 : Math.exp(median(ratios)) - 1, wilcoxonP(ratios));
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before;
+    }
+
+    // Замеры прогона, сгруппированные по виду и источнику; упавшие тесты не учитываются.
+    public static Map<String, List<Double>> read(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.filter(line -> !line.isBlank())
+                    .map(line -> gson.fromJson(line, RunMetrics.Measurement.class))
+                    .filter(record -> !"FAILED".equals(record.getStatus()))
+                    .collect(Collectors.groupingBy(RunComparison::key, TreeMap::new,
+                            Collectors.mapping(RunMetrics.Measurement::getMillis, Collectors.toList())));
+        }
+    }
+
+    private static String key(RunMetrics.Measurement record) {
+        var key = record.getKind() + " " + record.getGroup();
+        if (record.getName() == null) {
+            return key;
+        }
+        return key + ("test".equals(record.getKind()) ? "#" : ".") + record.getName();
+    }
+
+    private static List<Path> latestRuns(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".ndjson"))
+                    .sorted(Comparator.comparingLong(file -> file.toFile().lastModified()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Двусторонний p-value U-критерия в нормальном приближении с поправками на непрерывность и совпадения.
+    static double mannWhitneyP(List<Double> first, List<Double> second) {
+        int n1 = first.size();
+        int n2 = second.size();
+        var n = n1 + n2;
+        if (n1 == 0 || n2 == 0) {
+            return 1;
+        }
+        var values = new double[n][];
+        for (int i = 0; i < n; i++) {
+            values[i] = new double[]{i < n1 ? first.get(i) : second.get(i - n1), i < n1 ? 0 : 1};
+        }
+        Arrays.sort(values, (a, b) -> Double.compare(a[0], b[0]));
+        double rankSum = 0;
+        double ties = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && values[j][0] == values[i][0]) {
+                j++;
+            }
+            var rank = (i + 1 + j) / 2.0;
+            for (int k = i; k < j; k++) {
+                if (values[k][1] == 0) {
+                    rankSum += rank;
+                }
+            }
+            double t = j - i;
+            ties += t * t * t - t;
+            i = j;
+        }
+        var u = rankSum - n1 * (n1 + 1) / 2.0;
+        var mean = n1 * (double) n2 / 2;
+        var variance = n1 * (double) n2 / 12 * ((n + 1) - ties / ((double) n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        var z = Math.max(0, Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+        return Math.min(1, 2 * (1 - normalCdf(z)));
+    }
+
+    // Двусторонний p-value знаково-рангового критерия Уилкоксона в нормальном приближении; нулевые разности отбрасываются.
+    static double wilcoxonP(List<Double> differences) {
+        var values = differences.stream().filter(d -> d != 0).mapToDouble(Double::doubleValue).toArray();
+        var n = values.length;
+        if (n == 0) {
+            return 1;
+        }
+        var order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(Math.abs(values[a]), Math.abs(values[b])));
+        double positiveRanks = 0;
+        double ties = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && Math.abs(values[order[j]]) == Math.abs(values[order[i]])) {
+                j++;
+            }
+            var rank = (i + 1 + j) / 2.0;
+            for (int k = i; k < j; k++) {
+                if (values[order[k]] > 0) {
+                    positiveRanks += rank;
+                }
+            }
+            double t = j - i;
+            ties += t * t * t - t;
+            i = j;
+        }
+        var mean = n * (n + 1) / 4.0;
+        var variance = n * (n + 1) * (2 * n + 1) / 24.0 - ties / 48;
+        if (variance <= 0) {
+            return 1;
+        }
+        var z = Math.max(0, Math.abs(positiveRanks - mean) - 0.5) / Math.sqrt(variance);
+        return Math.min(1, 2 * (1 - normalCdf(z)));
+    }
+
+    // Приближение Абрамовица — Стиган (7.1.26), погрешность меньше 1.5e-7.
+    private static double normalCdf(double z) {
+        var x = Math.abs(z) / Math.sqrt(2);
+        var t = 1 / (1 + 0.3275911 * x);
+        var erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+                * Math.exp(-x * x);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+
+    private static double median(List<Double> values) {
+        var sorted = values.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
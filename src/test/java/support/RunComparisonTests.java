@@ -0,0 +1,88 @@
+package support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunComparisonTests {
+
+    private static List<Double> range(int from, int to) {
+        return IntStream.rangeClosed(from, to).mapToObj(i -> (double) i).collect(Collectors.toList());
+    }
+
+    @DisplayName("U-критерий Манна — Уитни: непересекающиеся выборки")
+    @Test
+    void mannWhitneySeparated() {
+        // U = 0, mean = 50, Var(U) = 10 * 10 * 21 / 12 = 175, z = 49.5 / sqrt(175)
+        assertEquals(1.8273e-4, RunComparison.mannWhitneyP(range(1, 10), range(11, 20)), 1e-7);
+    }
+
+    @DisplayName("U-критерий Манна — Уитни: одинаковые и пустые выборки")
+    @Test
+    void mannWhitneyNoDifference() {
+        assertEquals(1, RunComparison.mannWhitneyP(range(1, 10), range(1, 10)), 1e-6);
+        assertEquals(1, RunComparison.mannWhitneyP(List.of(), range(1, 10)));
+        assertEquals(1, RunComparison.mannWhitneyP(List.of(5.0, 5.0), List.of(5.0, 5.0)));
+    }
+
+    @DisplayName("Критерий Уилкоксона: все разности одного знака и чередование знаков")
+    @Test
+    void wilcoxon() {
+        // W+ = 55, mean = 27.5, Var = 10 * 11 * 21 / 24 = 96.25, z = 27 / sqrt(96.25)
+        assertEquals(0.0059216, RunComparison.wilcoxonP(range(1, 10)), 1e-6);
+        assertEquals(0.83394, RunComparison.wilcoxonP(List.of(1.0, -2.0, 3.0, -4.0, 5.0, -6.0)), 1e-5);
+        assertEquals(1, RunComparison.wilcoxonP(List.of(0.0, 0.0)));
+    }
+
+    @DisplayName("Тесты сравниваются по методам и попарно только по общим тестам")
+    @Test
+    void pairedTestComparison() {
+        Map<String, List<Double>> baseline = new TreeMap<>();
+        Map<String, List<Double>> candidate = new TreeMap<>();
+        for (int i = 0; i < 8; i++) {
+            var duration = 1000.0 + i * 500;
+            baseline.put("test CreditPageTests#test" + i, List.of(duration, duration + 10, duration - 10));
+            candidate.put("test CreditPageTests#test" + i, List.of(duration * 1.3));
+        }
+        // Тест есть только в базе (например, пропущен TestImpact) и в сравнение не попадает
+        baseline.put("test CreditPageTests#skipped", List.of(60000.0));
+
+        var differences = RunComparison.compare(baseline, candidate);
+        var byKey = differences.stream().collect(Collectors.toMap(RunComparison.Difference::getKey, d -> d));
+
+        assertTrue(byKey.containsKey("test CreditPageTests#test0"));
+        assertFalse(byKey.containsKey("test CreditPageTests#skipped"));
+        assertFalse(byKey.get("test CreditPageTests#test0").isRegression(), "one candidate sample is not enough");
+        var paired = byKey.get("test CreditPageTests (paired)");
+        assertEquals(8, paired.getBaselineCount());
+        assertEquals(0.3, paired.getChange(), 1e-9);
+        assertTrue(paired.isRegression(), paired.toString());
+        assertTrue(byKey.get("test * (paired)").isRegression());
+    }
+
+    @DisplayName("Разный состав тестов в прогонах не даёт ложного замедления")
+    @Test
+    void changedTestSetIsNotSlower() {
+        Map<String, List<Double>> baseline = new TreeMap<>();
+        Map<String, List<Double>> candidate = new TreeMap<>();
+        for (int i = 0; i < 6; i++) {
+            baseline.put("test OrderCardPageTests#fast" + i, List.of(100.0 + i));
+            candidate.put("test OrderCardPageTests#fast" + i, List.of(100.0 + (i % 2 == 0 ? 1 : -1)));
+        }
+        // В кандидате дополнительно выполнился медленный тест, которого не было в базе
+        candidate.put("test OrderCardPageTests#slow", List.of(20000.0));
+
+        var paired = RunComparison.compare(baseline, candidate).stream()
+                .filter(d -> d.getKey().equals("test OrderCardPageTests (paired)"))
+                .findFirst().orElseThrow();
+        assertEquals(6, paired.getBaselineCount());
+        assertFalse(paired.isRegression(), paired.toString());
+    }
+}
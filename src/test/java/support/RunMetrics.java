@@ -0,0 +1,125 @@
+package support;
+
+import com.google.gson.Gson;
+import lombok.Value;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+// Метрики прогона в формате NDJSON (.metrics/<run>.ndjson): по строке на тест, действие на странице,
+// SQL-запрос, запрос к API и, в конце прогона, на каждый ответ симулятора банка из его журнала.
+// Два прогона сравниваются задачей compareRuns (RunComparison).
+public class RunMetrics implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+    private static final boolean enabled = Boolean.parseBoolean(System.getProperty("metrics.enabled", "true"));
+    private static final Path dir = Path.of(System.getProperty("metrics.dir", ".metrics"));
+    private static final String run = System.getProperty("metrics.run",
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+    private static final Path gateLog = Path.of(System.getProperty("metrics.gateLog", "gate-simulator/recordings/traffic.log"));
+    private static final long runStart = System.currentTimeMillis();
+    private static final Gson gson = new Gson();
+    private static final ExtensionContext.Namespace namespace = ExtensionContext.Namespace.create(RunMetrics.class);
+    private static BufferedWriter writer;
+    private static boolean failed;
+
+    @Value
+    public static class Measurement {
+        long time;
+        String kind;
+        String group;
+        String name;
+        double millis;
+        String status;
+    }
+
+    static {
+        if (enabled) {
+            Runtime.getRuntime().addShutdownHook(new Thread(RunMetrics::close, "run-metrics"));
+        }
+    }
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(namespace).put("start", System.nanoTime());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        var start = context.getStore(namespace).get("start", Long.class);
+        if (start != null) {
+            record("test", context.getRequiredTestClass().getSimpleName(), context.getRequiredTestMethod().getName(),
+                    start, context.getExecutionException().isPresent() ? "FAILED" : "PASSED");
+            flush();
+        }
+    }
+
+    public static void record(String kind, String group, String name, long startNanos, String status) {
+        write(new Measurement(System.currentTimeMillis(), kind, group, name,
+                (System.nanoTime() - startNanos) / 1_000_000.0, status));
+    }
+
+    public static Path file() {
+        return dir.resolve(run + ".ndjson");
+    }
+
+    private static synchronized void write(Measurement record) {
+        if (!enabled || failed) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                Files.createDirectories(dir);
+                writer = Files.newBufferedWriter(file());
+            }
+            writer.write(gson.toJson(record));
+            writer.newLine();
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("Run metrics are disabled, cannot write " + file() + ": " + e);
+        }
+    }
+
+    private static synchronized void flush() {
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to flush run metrics: " + e);
+        }
+    }
+
+    // Журнал симулятора (RECORD_FILE): время, путь, номер карты, ответ, время обработки в микросекундах.
+    private static void appendGateLatencies() {
+        if (!Files.exists(gateLog)) {
+            return;
+        }
+        try (Stream<String> lines = Files.lines(gateLog)) {
+            lines.map(line -> line.split("\t"))
+                    .filter(fields -> fields.length == 5 && Long.parseLong(fields[0]) >= runStart)
+                    .forEach(fields -> write(new Measurement(Long.parseLong(fields[0]), "gate", fields[1], null,
+                            Long.parseLong(fields[4]) / 1000.0, fields[3])));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to read gate latencies from " + gateLog + ": " + e);
+        }
+    }
+
+    private static synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        appendGateLatencies();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close run metrics: " + e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package support;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("diplom.SqlQuery")
+@Label("SQL query")
+@Category("Diplom QA")
+public class SqlQueryEvent extends Event {
+    @Label("Query")
+    String query;
+
+    private transient long started;
+
+    public static SqlQueryEvent begin(String query) {
+        var event = new SqlQueryEvent();
+        event.query = query;
+        event.started = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    // Завершает событие JFR и пишет длительность запроса в метрики прогона.
+    public void finish() {
+        commit();
+        RunMetrics.record("sql", query, null, started, null);
+    }
+}
@@ -0,0 +1,261 @@
+package support;
+
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Выборочный запуск (-Dimpact.enabled=true): тест пропускается, если с его последнего успешного прохождения
+// не изменились ни он сам, ни используемые страницы, методы DataHelper/SQLHelper, инфраструктура support,
+// версия приложения и симулятора банка. Входы определяются по исходному коду тестов.
+public class TestImpact implements ExecutionCondition, BeforeTestExecutionCallback, TestWatcher {
+    private static final boolean enabled = Boolean.getBoolean("impact.enabled");
+    private static final Path sources = Path.of(System.getProperty("impact.sources", "src/test/java"));
+    private static final Path cacheFile = Path.of(System.getProperty("impact.cache", ".impact/results.properties"));
+    private static final Path appJar = Path.of(System.getProperty("impact.app", "artifacts/aqa-shop.jar"));
+    private static final Path simulator = Path.of(System.getProperty("impact.simulator", "gate-simulator"));
+    private static final Pattern helperCall = Pattern.compile("\\b(DataHelper|SQLHelper)\\.(\\w+)\\(");
+    private static final Pattern pageCall = Pattern.compile("\\bgoTo(\\w+)\\(");
+    private static final Pattern call = Pattern.compile("\\b(\\w+)\\(");
+    private static final Pattern testMethod = Pattern.compile("@Test\\s+void\\s+(\\w+)\\(");
+    // По этому началу причины отключения CachedResult узнаёт пропущенный тест в отчёте Allure.
+    static final String cachedReason = "Inputs unchanged since ";
+    private static final ExtensionContext.Namespace namespace = ExtensionContext.Namespace.create(TestImpact.class);
+
+    private static final Map<String, String> sourceCache = new ConcurrentHashMap<>();
+    private static final Properties cache = load();
+    private static String environment;
+
+    static {
+        if (enabled) {
+            Runtime.getRuntime().addShutdownHook(new Thread(TestImpact::save, "test-impact"));
+        }
+    }
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (!enabled || context.getTestMethod().isEmpty()) {
+            return ConditionEvaluationResult.enabled("Test impact analysis is off");
+        }
+        var hash = inputsHash(context);
+        context.getStore(namespace).put("hash", hash);
+        var cached = cache.getProperty(key(context));
+        if (cached != null) {
+            var fields = cached.split(";");
+            if (fields[0].equals(hash) && "PASSED".equals(fields[1])) {
+                return ConditionEvaluationResult.disabled(String.format(
+                        cachedReason + "%s, cached result PASSED in %s ms", fields[3], fields[2]));
+            }
+        }
+        return ConditionEvaluationResult.enabled("Inputs changed since the last passed run");
+    }
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(namespace).put("start", System.nanoTime());
+    }
+
+    @Override
+    public void testSuccessful(ExtensionContext context) {
+        var store = context.getStore(namespace);
+        var hash = store.get("hash", String.class);
+        var start = store.get("start", Long.class);
+        if (!enabled || hash == null || start == null) {
+            return;
+        }
+        var millis = (System.nanoTime() - start) / 1_000_000;
+        var now = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        synchronized (cache) {
+            cache.setProperty(key(context), String.join(";", hash, "PASSED", String.valueOf(millis), now));
+        }
+    }
+
+    @Override
+    public void testFailed(ExtensionContext context, Throwable cause) {
+        forget(context);
+    }
+
+    @Override
+    public void testAborted(ExtensionContext context, Throwable cause) {
+        forget(context);
+    }
+
+    private static void forget(ExtensionContext context) {
+        if (enabled) {
+            synchronized (cache) {
+                cache.remove(key(context));
+            }
+        }
+    }
+
+    private static String key(ExtensionContext context) {
+        return context.getRequiredTestClass().getName() + "#" + context.getRequiredTestMethod().getName();
+    }
+
+    private static String inputsHash(ExtensionContext context) {
+        var className = context.getRequiredTestClass().getName();
+        var classSource = source(className);
+        var body = methodBody(classSource, context.getRequiredTestMethod().getName());
+        var inputs = new TreeMap<String, String>();
+        inputs.put("environment", environment());
+        inputs.put(className, withoutTestBodies(classSource));
+        inputs.put(className + "#" + context.getRequiredTestMethod().getName(), body);
+        inputs.put("pages.StartPage", source("pages.StartPage"));
+        var pages = pageCall.matcher(body);
+        while (pages.find()) {
+            inputs.put("pages." + pages.group(1), source("pages." + pages.group(1)));
+        }
+        var helpers = helperCall.matcher(body + withoutTestBodies(classSource));
+        while (helpers.find()) {
+            collectMethod("data." + helpers.group(1), helpers.group(2), inputs);
+        }
+        return sha256(inputs.toString());
+    }
+
+    // Метод хелпера вместе с вызываемыми им методами того же класса.
+    private static void collectMethod(String className, String method, Map<String, String> inputs) {
+        var key = className + "#" + method;
+        if (inputs.containsKey(key)) {
+            return;
+        }
+        var body = methodBody(source(className), method);
+        if (body.isEmpty()) {
+            return;
+        }
+        inputs.put(key, body);
+        var calls = call.matcher(body);
+        while (calls.find()) {
+            collectMethod(className, calls.group(1), inputs);
+        }
+    }
+
+    private static String methodBody(String source, String method) {
+        var declaration = Pattern.compile("[\\w<>\\[\\].]+\\s+" + Pattern.quote(method) + "\\s*\\([^)]*\\)[^{;]*\\{")
+                .matcher(source);
+        if (!declaration.find()) {
+            return "";
+        }
+        var depth = 1;
+        var end = declaration.end();
+        while (depth > 0 && end < source.length()) {
+            var c = source.charAt(end++);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            }
+        }
+        return source.substring(declaration.start(), end);
+    }
+
+    private static String withoutTestBodies(String classSource) {
+        var result = classSource;
+        var tests = testMethod.matcher(classSource);
+        while (tests.find()) {
+            result = result.replace(methodBody(classSource, tests.group(1)), "");
+        }
+        return result;
+    }
+
+    private static String source(String className) {
+        return sourceCache.computeIfAbsent(className, name -> read(sources.resolve(name.replace('.', '/') + ".java")));
+    }
+
+    private static synchronized String environment() {
+        if (environment == null) {
+            var parts = new TreeMap<String, String>();
+            parts.put("app.url", System.getProperty("app.url", ""));
+            parts.put("db.url", System.getProperty("db.url", ""));
+            parts.put("app.version", System.getProperty("impact.appVersion", ""));
+            parts.put("app.jar", Files.exists(appJar) ? sha256(readBytes(appJar)) : "");
+            for (var file : List.of("app.js", "cards.js", "data.json", "package.json")) {
+                parts.put("simulator/" + file, read(simulator.resolve(file)));
+            }
+            try (Stream<Path> files = Files.list(sources.resolve("support"))) {
+                for (var file : files.sorted().collect(Collectors.toList())) {
+                    parts.put("support/" + file.getFileName(), read(file));
+                }
+            } catch (IOException e) {
+                parts.put("support", e.toString());
+            }
+            environment = sha256(parts.toString());
+        }
+        return environment;
+    }
+
+    private static String read(Path file) {
+        return Files.exists(file) ? new String(readBytes(file), StandardCharsets.UTF_8) : "";
+    }
+
+    private static byte[] readBytes(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    private static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] value) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(value);
+            var hex = new StringBuilder();
+            for (var b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Properties load() {
+        var properties = new Properties();
+        if (enabled && Files.exists(cacheFile)) {
+            try (var reader = Files.newBufferedReader(cacheFile)) {
+                properties.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Ignoring unreadable test impact cache " + cacheFile + ": " + e);
+            }
+        }
+        return properties;
+    }
+
+    private static void save() {
+        try {
+            var dir = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            var temp = Files.createTempFile(dir, "results", ".tmp");
+            synchronized (cache) {
+                try (var writer = Files.newBufferedWriter(temp)) {
+                    cache.store(writer, "Test inputs hash;status;duration ms;time");
+                }
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to save test impact cache " + cacheFile + ": " + e);
+        }
+    }
+}
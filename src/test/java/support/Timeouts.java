@@ -0,0 +1,141 @@
+package support;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class Timeouts {
+    private static final Path statsFile = Path.of(System.getProperty("timeouts.stats", ".timeouts/stats.properties"));
+    private static final double safetyFactor = Double.parseDouble(System.getProperty("timeouts.factor", "3"));
+    private static final Duration floor = Duration.ofMillis(Long.getLong("timeouts.floor", 1000));
+    private static final Duration ceiling = Duration.ofMillis(Long.getLong("timeouts.ceiling", 60000));
+    private static final int minSamples = 20;
+    private static final int maxSamples = 500;
+
+    private static final Map<Wait, List<Long>> history = load();
+    private static final Map<Wait, List<Long>> observed = new EnumMap<>(Wait.class);
+    private static final Map<Wait, Duration> timeouts = new EnumMap<>(Wait.class);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Timeouts::save, "timeouts-stats"));
+    }
+
+    public enum Wait {
+        NOTIFICATION(Duration.ofMillis(15000), false),
+        FIELD_ERROR(Duration.ofMillis(4000), false),
+        DB_ROW(Duration.ofMillis(5000), true);
+
+        private final Duration fallback;
+        private final boolean database;
+
+        Wait(Duration fallback, boolean database) {
+            this.fallback = fallback;
+            this.database = database;
+        }
+    }
+
+    // Таймаут = p99 наблюдённых ожиданий * запас; пока статистики мало - прежние фиксированные значения.
+    public static synchronized Duration timeout(Wait wait) {
+        return timeouts.computeIfAbsent(wait, key -> {
+            var samples = history.getOrDefault(key, List.of());
+            if (samples.size() < minSamples) {
+                return key.fallback;
+            }
+            var sorted = new ArrayList<>(samples);
+            Collections.sort(sorted);
+            var p99 = sorted.get((int) Math.ceil(0.99 * sorted.size()) - 1);
+            var calibrated = Duration.ofMillis((long) (p99 * safetyFactor));
+            return calibrated.compareTo(floor) < 0 ? floor : calibrated.compareTo(ceiling) > 0 ? ceiling : calibrated;
+        });
+    }
+
+    // Исключение или null означает, что условие не наступило за таймаут. Такое ожидание записывается
+    // значением таймаута (настоящее время не меньше), иначе калибровка видит только быстрые ожидания и сужает таймаут.
+    public static <T> T measure(Wait wait, Function<Duration, T> action) {
+        var timeout = timeout(wait);
+        Consumer<String> finish = wait.database
+                ? DbWaitEvent.begin(caller(), wait.name())::finish
+                : PageActionEvent.begin(caller(), wait.name())::finish;
+        var start = System.nanoTime();
+        T result = null;
+        try {
+            result = action.apply(timeout);
+            return result;
+        } finally {
+            record(wait, result != null ? (System.nanoTime() - start) / 1_000_000 : timeout.toMillis());
+            finish.accept(result != null ? null : "timeout");
+        }
+    }
+
+    private static String caller() {
+        return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE)
+                .walk(frames -> frames.map(StackWalker.StackFrame::getDeclaringClass)
+                        .filter(type -> type != Timeouts.class)
+                        .findFirst()
+                        .map(Class::getSimpleName)
+                        .orElse("unknown"));
+    }
+
+    private static synchronized void record(Wait wait, long millis) {
+        observed.computeIfAbsent(wait, key -> new ArrayList<>()).add(millis);
+    }
+
+    private static Map<Wait, List<Long>> load() {
+        var stats = new EnumMap<Wait, List<Long>>(Wait.class);
+        if (!Files.exists(statsFile)) {
+            return stats;
+        }
+        var properties = new Properties();
+        try (var reader = Files.newBufferedReader(statsFile)) {
+            properties.load(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Ignoring unreadable timeout stats " + statsFile + ": " + e);
+            return stats;
+        }
+        for (var wait : Wait.values()) {
+            var value = properties.getProperty(wait.name(), "");
+            if (!value.isBlank()) {
+                stats.put(wait, Arrays.stream(value.split(",")).map(Long::valueOf).collect(Collectors.toList()));
+            }
+        }
+        return stats;
+    }
+
+    private static synchronized void save() {
+        if (observed.isEmpty()) {
+            return;
+        }
+        var properties = new Properties();
+        for (var wait : Wait.values()) {
+            var samples = new ArrayList<>(history.getOrDefault(wait, List.of()));
+            samples.addAll(observed.getOrDefault(wait, List.of()));
+            var recent = samples.subList(Math.max(0, samples.size() - maxSamples), samples.size());
+            if (!recent.isEmpty()) {
+                properties.setProperty(wait.name(), recent.stream().map(String::valueOf).collect(Collectors.joining(",")));
+            }
+        }
+        try {
+            var dir = statsFile.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            var temp = Files.createTempFile(dir, "stats", ".tmp");
+            try (var writer = Files.newBufferedWriter(temp)) {
+                properties.store(writer, "Observed wait latencies, ms");
+            }
+            Files.move(temp, statsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to save timeout stats " + statsFile + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package tests;
+
+import data.SQLHelper;
+import load.SubmissionStress;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import support.JfrExtension;
+import support.ReadinessExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static load.SubmissionStress.Flow.CREDIT;
+import static load.SubmissionStress.Flow.PAYMENT;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("stress")
+@ExtendWith({ReadinessExtension.class, JfrExtension.class})
+class ConcurrencyTests {
+    private static final int clients = Integer.getInteger("stress.clients", 20);
+    private static final int submissions = Integer.getInteger("stress.submissions", 5);
+    private static final int maxRate = Integer.getInteger("stress.maxRate", 256);
+    private static final int stepSeconds = Integer.getInteger("stress.stepSeconds", 10);
+
+    @BeforeEach
+    void setUp() {
+        SQLHelper.clearDB();
+    }
+
+    @DisplayName("Одновременная оплата по карте множеством клиентов")
+    @Test
+    void concurrentPayments() {
+        var outcome = SubmissionStress.fire(new SubmissionStress.Burst(List.of(PAYMENT), clients, submissions, false));
+        assertTrue(outcome.isConsistent(), outcome.toString());
+    }
+
+    @DisplayName("Одновременная покупка в кредит множеством клиентов")
+    @Test
+    void concurrentCredits() {
+        var outcome = SubmissionStress.fire(new SubmissionStress.Burst(List.of(CREDIT), clients, submissions, false));
+        assertTrue(outcome.isConsistent(), outcome.toString());
+    }
+
+    @DisplayName("Повторное нажатие «Продолжить»: каждая заявка отправляется дважды")
+    @Test
+    void doubleSubmit() {
+        var outcome = SubmissionStress.fire(new SubmissionStress.Burst(List.of(PAYMENT, CREDIT), clients, submissions, true));
+        assertTrue(outcome.isConsistent(), outcome.toString());
+    }
+
+    @DisplayName("Чередование оплаты и кредита с повторными отправками")
+    @Test
+    void interleavedDoubleSubmit() {
+        var outcome = SubmissionStress.fire(new SubmissionStress.Burst(List.of(CREDIT, PAYMENT), clients * 2, 1, true));
+        assertTrue(outcome.isConsistent(), outcome.toString());
+    }
+
+    @DisplayName("Предельная частота заявок без ошибок и дублей")
+    @Test
+    void maxSustainableRate() {
+        var rate = SubmissionStress.findMaxSustainableRate(List.of(PAYMENT, CREDIT), 1, maxRate, Duration.ofSeconds(stepSeconds));
+        System.out.println("Max sustainable submission rate: " + rate + " req/s");
+        assertTrue(rate > 0, "App fails even at 1 req/s");
+    }
+}
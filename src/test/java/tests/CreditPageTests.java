@@ -5,28 +5,41 @@ import data.DataHelper;
 import data.SQLHelper;
 import io.qameta.allure.selenide.AllureSelenide;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 import pages.StartPage;
+import support.AssetCache;
+import support.AttachmentPipeline;
+import support.JfrExtension;
+import support.PagePerformance;
+import support.ReadinessExtension;
+import support.RunMetrics;
+import support.TestImpact;
 
 import static com.codeborne.selenide.Selenide.open;
 import static org.junit.jupiter.api.Assertions.*;
 
 
+@ExtendWith({ReadinessExtension.class, JfrExtension.class, AttachmentPipeline.class, TestImpact.class, AssetCache.class, RunMetrics.class})
 public class CreditPageTests {
 
-    StartPage startPage = open("http://localhost:8080/", StartPage.class);
+    StartPage startPage;
 
     @BeforeAll
     static void setUpAll() {
-        SelenideLogger.addListener("allure", new AllureSelenide());
+        SelenideLogger.addListener("allure", new AllureSelenide().screenshots(false).savePageSource(false));
+        PagePerformance.install();
+        AssetCache.install();
     }
 
     @AfterAll
     static void tearDownAll() {
         SelenideLogger.removeListener("allure");
+        AttachmentPipeline.flush();
     }
 
     @BeforeEach
     void setUp() {
+        startPage = open(System.getProperty("app.url", "http://localhost:8080/"), StartPage.class);
         SQLHelper.clearDB();
     }
 
@@ -37,7 +50,7 @@ public class CreditPageTests {
         var creditPage = startPage.goToCreditPage();
         creditPage.insertCardData(cardInfo);
         creditPage.checkApprovedNotification();
-        assertEquals("APPROVED", SQLHelper.getCreditRequestStatus());
+        assertEquals("APPROVED", SQLHelper.waitForCreditRequestStatus());
     }
 
     @DisplayName("Отказ в покупке в кредит по карте, со статусом DECLINED")
@@ -47,7 +60,7 @@ public class CreditPageTests {
         var creditPage = startPage.goToCreditPage();
         creditPage.insertCardData(cardInfo);
         creditPage.checkDeclinedNotification();
-        assertEquals("DECLINED", SQLHelper.getCreditRequestStatus());
+        assertEquals("DECLINED", SQLHelper.waitForCreditRequestStatus());
     }
 
     @DisplayName("Отправка пустой формы запроса")
@@ -0,0 +1,119 @@
+package tests;
+
+import com.codeborne.selenide.logevents.SelenideLogger;
+import data.ApiHelper;
+import data.DataHelper;
+import data.SQLHelper;
+import io.qameta.allure.Allure;
+import io.qameta.allure.selenide.AllureSelenide;
+import load.DbProxyClient;
+import load.SubmissionStress;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import pages.StartPage;
+import support.AttachmentPipeline;
+import support.JfrExtension;
+import support.PagePerformance;
+import support.ReadinessExtension;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.codeborne.selenide.Selenide.open;
+import static load.SubmissionStress.Flow.CREDIT;
+import static load.SubmissionStress.Flow.PAYMENT;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Приложение должно ходить в БД через DbProxy: -Dspring.datasource.url=jdbc:mysql://localhost:13306/app
+@Tag("proxy")
+@ExtendWith({ReadinessExtension.class, JfrExtension.class, AttachmentPipeline.class})
+class DbSlownessTests {
+    private static final DbProxyClient proxy = new DbProxyClient(URI.create(System.getProperty("proxy.control", "http://localhost:7070/")));
+    private static final String appUrl = System.getProperty("app.url", "http://localhost:8080/");
+    private static final List<Long> latencies = Arrays.stream(System.getProperty("proxy.latencies", "0,20,100,300").split(","))
+            .map(Long::valueOf)
+            .collect(Collectors.toList());
+
+    @BeforeAll
+    static void setUpAll() {
+        SelenideLogger.addListener("allure", new AllureSelenide().screenshots(false).savePageSource(false));
+        PagePerformance.install();
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        SelenideLogger.removeListener("allure");
+        AttachmentPipeline.flush();
+    }
+
+    @BeforeEach
+    void setUp() {
+        SQLHelper.clearDB();
+    }
+
+    @AfterEach
+    void tearDown() {
+        proxy.clear();
+    }
+
+    @DisplayName("Время появления уведомления об одобрении при замедлении БД")
+    @Test
+    void notificationTimeUnderDbLatency() {
+        var report = new StringBuilder("db latency, ms;notification, ms\n");
+        for (var latency : latencies) {
+            proxy.setLatency(Duration.ofMillis(latency));
+            var orderPage = open(appUrl, StartPage.class).goToOrderCardPage();
+            orderPage.insertCardData(DataHelper.getApprovedCard());
+            var start = System.nanoTime();
+            orderPage.checkApprovedNotification();
+            report.append(latency).append(';').append((System.nanoTime() - start) / 1_000_000).append('\n');
+        }
+        System.out.println(report);
+        Allure.addAttachment("Notification time vs DB latency", "text/csv", report.toString(), ".csv");
+    }
+
+    @DisplayName("Пропускная способность оформления заказов при замедлении БД")
+    @Test
+    void throughputUnderDbLatency() {
+        var report = new StringBuilder("db latency, ms;orders/s;p50, ms;p99, ms\n");
+        for (var latency : latencies) {
+            SQLHelper.clearDB();
+            proxy.setLatency(Duration.ofMillis(latency));
+            var start = System.nanoTime();
+            var outcome = SubmissionStress.fire(new SubmissionStress.Burst(List.of(PAYMENT, CREDIT), 10, 5, false));
+            var seconds = (System.nanoTime() - start) / 1e9;
+            report.append(String.format("%d;%.1f;%d;%d%n", latency, outcome.getAccepted() / seconds, outcome.getP50(), outcome.getP99()));
+            assertTrue(outcome.isConsistent(), latency + " ms: " + outcome);
+        }
+        System.out.println(report);
+        Allure.addAttachment("Order throughput vs DB latency", "text/csv", report.toString(), ".csv");
+    }
+
+    @DisplayName("Приложение восстанавливается после обрыва соединений с БД")
+    @Test
+    void recoversAfterConnectionReset() {
+        proxy.resetConnections();
+        var accepted = false;
+        for (int attempt = 0; attempt < 3 && !accepted; attempt++) {
+            accepted = ApiHelper.pay(DataHelper.getApprovedCard()).join().statusCode() == 200;
+        }
+        assertTrue(accepted, "App did not recover after DB connection reset: " + proxy.stats());
+        assertEquals("APPROVED", SQLHelper.waitForPaymentStatus());
+    }
+
+    @DisplayName("Заявка завершается после приостановки и возобновления обмена с БД")
+    @Test
+    void completesAfterPause() throws Exception {
+        proxy.pause();
+        var response = ApiHelper.pay(DataHelper.getApprovedCard());
+        TimeUnit.SECONDS.sleep(2);
+        assertFalse(response.isDone(), "Request completed while DB traffic was paused");
+        proxy.resume();
+        assertEquals(200, response.get(30, TimeUnit.SECONDS).statusCode());
+        assertEquals("APPROVED", SQLHelper.waitForPaymentStatus());
+    }
+}
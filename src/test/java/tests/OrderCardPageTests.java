@@ -5,26 +5,39 @@ import data.DataHelper;
 import data.SQLHelper;
 import io.qameta.allure.selenide.AllureSelenide;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 import pages.StartPage;
+import support.AssetCache;
+import support.AttachmentPipeline;
+import support.JfrExtension;
+import support.PagePerformance;
+import support.ReadinessExtension;
+import support.RunMetrics;
+import support.TestImpact;
 
 import static com.codeborne.selenide.Selenide.open;
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith({ReadinessExtension.class, JfrExtension.class, AttachmentPipeline.class, TestImpact.class, AssetCache.class, RunMetrics.class})
 class OrderCardPageTests {
-    StartPage startPage = open("http://localhost:8080/", StartPage.class);
+    StartPage startPage;
 
     @BeforeAll
     static void setUpAll() {
-        SelenideLogger.addListener("allure", new AllureSelenide());
+        SelenideLogger.addListener("allure", new AllureSelenide().screenshots(false).savePageSource(false));
+        PagePerformance.install();
+        AssetCache.install();
     }
 
     @AfterAll
     static void tearDownAll() {
         SelenideLogger.removeListener("allure");
+        AttachmentPipeline.flush();
     }
 
     @BeforeEach
     void setUp() {
+        startPage = open(System.getProperty("app.url", "http://localhost:8080/"), StartPage.class);
         SQLHelper.clearDB();
     }
 
@@ -35,7 +48,7 @@ class OrderCardPageTests {
         var orderPage = startPage.goToOrderCardPage();
         orderPage.insertCardData(cardInfo);
         orderPage.checkApprovedNotification();
-        assertEquals("APPROVED", SQLHelper.getPaymentStatus());
+        assertEquals("APPROVED", SQLHelper.waitForPaymentStatus());
 
     }
 
@@ -46,7 +59,7 @@ class OrderCardPageTests {
         var orderPage = startPage.goToOrderCardPage();
         orderPage.insertCardData(cardInfo);
         orderPage.checkDeclinedNotification();
-        assertEquals("DECLINED", SQLHelper.getPaymentStatus());
+        assertEquals("DECLINED", SQLHelper.waitForPaymentStatus());
     }
 
     @DisplayName("Отправка пустой формы запроса")
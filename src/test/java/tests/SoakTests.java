@@ -0,0 +1,39 @@
+package tests;
+
+import data.SQLHelper;
+import load.Soak;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import support.ReadinessExtension;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static load.SubmissionStress.Flow.CREDIT;
+import static load.SubmissionStress.Flow.PAYMENT;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("soak")
+@ExtendWith(ReadinessExtension.class)
+class SoakTests {
+    private static final Duration duration = Duration.ofMinutes(Long.getLong("soak.minutes", 60));
+    private static final Duration window = Duration.ofSeconds(Long.getLong("soak.windowSeconds", 60));
+    private static final int rate = Integer.getInteger("soak.rate", 2);
+    private static final Path report = Path.of(System.getProperty("soak.report", "build/soak/samples.csv"));
+
+    @BeforeEach
+    void setUp() {
+        SQLHelper.clearDB();
+    }
+
+    @DisplayName("Длительная оплата и покупка в кредит без роста сессий БД, памяти и задержек")
+    @Test
+    void noResourceGrowth() {
+        var result = Soak.run(List.of(PAYMENT, CREDIT), rate, duration, window, report);
+        System.out.println("Soak: " + result.summary());
+        assertTrue(result.getSamples().size() >= 4, "Too few windows for trend analysis: " + result.getSamples().size());
+        assertTrue(result.isRateAchieved(), "Load generator fell behind the planned rate: " + result.summary());
+        assertTrue(result.getGrowing().isEmpty(), result.summary());
+    }
+}
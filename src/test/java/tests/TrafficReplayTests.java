@@ -0,0 +1,40 @@
+package tests;
+
+import io.qameta.allure.Allure;
+import load.TrafficReplay;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import support.JfrExtension;
+import support.ReadinessExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("replay")
+@ExtendWith({ReadinessExtension.class, JfrExtension.class})
+class TrafficReplayTests {
+    private static final Path log = Path.of(System.getProperty("replay.file", "gate-simulator/recordings/traffic.log"));
+    private static final double speed = Double.parseDouble(System.getProperty("replay.speed", "1"));
+    private static final int maxInFlight = Integer.getInteger("replay.maxInFlight", 64);
+    private static final double maxErrorDrift = Double.parseDouble(System.getProperty("replay.maxErrorDrift", "0.01"));
+    private static final String gateLog = System.getProperty("replay.gateLog", "");
+    private static final String maxGateDrift = System.getProperty("replay.maxGateDrift", "");
+
+    @DisplayName("Воспроизведение записанного трафика симулятора банка")
+    @Test
+    void replayRecordedTraffic() {
+        Assumptions.assumeTrue(Files.exists(log), "No traffic recording at " + log);
+        var entries = TrafficReplay.read(log);
+        Assumptions.assumeFalse(entries.isEmpty(), "No recorded traffic in " + log);
+        var report = TrafficReplay.replay(entries, speed, maxInFlight, gateLog.isBlank() ? null : Path.of(gateLog));
+        System.out.println(report);
+        Allure.addAttachment("Replay x" + speed + " of " + log.getFileName(), "text/plain", report.toString(), ".txt");
+        assertTrue(Math.abs(report.getErrorDrift()) <= maxErrorDrift, report.toString());
+        if (!maxGateDrift.isBlank()) {
+            assertTrue(report.getReplayedGateRequests() > 0, "No replayed requests in " + gateLog + "\n" + report);
+            assertTrue(report.getGateP99Drift() <= Double.parseDouble(maxGateDrift), report.toString());
+        }
+    }
+}